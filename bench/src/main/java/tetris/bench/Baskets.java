@@ -0,0 +1,39 @@
+package tetris.bench;
+
+import java.util.SplittableRandom;
+
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+
+final class Baskets {
+    private Baskets() {
+    }
+
+    static int getCols(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    static int getRows(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+
+    static TetrisGrid create(String size) {
+        // 2 extra spaces above, as in a game
+        return new TetrisGrid(getCols(size), getRows(size) + 2);
+    }
+
+    static void fill(TetrisGrid grid, int rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        // Leave one hole in each row, so that no row is full
+        for (int row = 0; row < rows; ++row) {
+            int hole = random.nextInt(grid.getNumCols());
+
+            for (int col = 0; col < grid.getNumCols(); ++col) {
+                if (col != hole) {
+                    grid.set(col, row, SquareType.J);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package tetris.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+    public static void main(String... args) throws CommandLineOptionException,
+            RunnerException {
+        // Always profile allocation, on top of the usual JMH options
+        Options options =
+            new OptionsBuilder().parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class).build();
+
+        new Runner(options).run();
+    }
+}
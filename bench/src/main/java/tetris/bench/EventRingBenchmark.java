@@ -0,0 +1,61 @@
+package tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.game.GameEvent;
+import tetris.game.GameEventCursor;
+import tetris.game.GameEventRing;
+import tetris.game.GameEventType;
+import tetris.game.TetrisGrid.SquareType;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventRingBenchmark {
+    private GameEventRing ring;
+
+    private GameEventCursor cursor;
+
+    private GameEvent event;
+
+    private int value;
+
+    @Setup
+    public void setUp() {
+        ring = new GameEventRing(1024);
+        cursor = ring.newCursor();
+        event = new GameEvent();
+    }
+
+    @Benchmark
+    public long publish() {
+        // Without a consumer keeping up, as when nobody follows the game
+        ring.publish(GameEventType.MOVE, SquareType.T, 4, 10, 0, ++value,
+            value);
+
+        return ring.getPublished();
+    }
+
+    @Benchmark
+    public int publishAndPoll() {
+        ring.publish(GameEventType.MOVE, SquareType.T, 4, 10, 0, ++value,
+            value);
+        cursor.poll(event);
+
+        return event.getValue();
+    }
+}
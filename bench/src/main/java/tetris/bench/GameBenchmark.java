@@ -0,0 +1,156 @@
+package tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.ai.BoardEvaluator;
+import tetris.game.HeadlessDriver;
+import tetris.game.PlacementFinder;
+import tetris.game.TetrisGame;
+import tetris.game.TetrisGame.GameState;
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+import tetris.game.Tetromino;
+import tetris.sim.RandomPlayer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"10x20", "50x50", "1000x10000"})
+    public String size;
+
+    // Full rows among the bottom rows, as cleared by removeLines()
+    @Param({"1", "4"})
+    public int lines;
+
+    private TetrisGrid template, grid, scratch;
+
+    private HeadlessDriver driver;
+
+    private PlacementFinder finder;
+
+    private BoardEvaluator evaluator;
+
+    @Setup
+    public void setUp() {
+        template = Baskets.create(size);
+        grid = Baskets.create(size);
+        scratch = Baskets.create(size);
+        finder = new PlacementFinder();
+        evaluator = new BoardEvaluator();
+
+        // Interleave the full rows with partial ones
+        Baskets.fill(template, template.getNumRows() / 2, 1);
+
+        for (int row = 0; row < lines; ++row) {
+            for (int col = 0; col < template.getNumCols(); ++col) {
+                template.set(col, row * 2, SquareType.L);
+            }
+        }
+
+        driver = new HeadlessDriver(1);
+        driver.setPlayer(new RandomPlayer(1));
+        driver.getGame().setBasketSize(Baskets.getCols(size),
+            Baskets.getRows(size));
+        driver.getGame().startGame();
+    }
+
+    @Benchmark
+    public TetrisGrid copyGrid() {
+        grid.copyFrom(template);
+
+        return grid;
+    }
+
+    @Benchmark
+    public int clearLines() {
+        // Includes copying the grid, which is measured on its own above
+        grid.copyFrom(template);
+
+        return grid.clearFullRows();
+    }
+
+    @Benchmark
+    public boolean step() {
+        TetrisGame game = driver.getGame();
+
+        // A random player loses quickly, so keep starting new games
+        if (game.getState() != GameState.ON) {
+            game.startGame();
+        }
+
+        return driver.step();
+    }
+
+    @Benchmark
+    public int dropPiece() {
+        TetrisGame game = driver.getGame();
+
+        if (game.getState() != GameState.ON) {
+            game.startGame();
+        }
+
+        // A whole piece per operation, from its drop and lock to the spawn
+        // of the next, which should allocate nothing. Each piece is aimed
+        // so that lines clear and games go on instead of restarting, which
+        // makes the time mostly the aiming; step() times the game alone
+        aim(game);
+        game.dropTetromino(false);
+
+        return game.getPieces();
+    }
+
+    private void aim(TetrisGame game) {
+        Tetromino tetromino = game.getCurrentTetromino();
+        int numDrops =
+            finder.findDrops(game.getBasketGrid(), tetromino.getType());
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        // Pick the straight drop that leaves the best board, one piece ahead
+        for (int i = 0; i < numDrops; ++i) {
+            scratch.copyFrom(game.getBasketGrid());
+            finder.place(i, scratch);
+
+            double value =
+                evaluator.getLineReward(scratch.clearFullRows())
+                    + evaluator.evaluate(scratch);
+
+            if (value > bestValue) {
+                best = i;
+                bestValue = value;
+            }
+        }
+
+        if (best < 0) {
+            return;
+        }
+
+        for (int i = 0; i < finder.getRotation(best); ++i) {
+            game.rotateTetromino(!game.isRotateClockwise());
+        }
+
+        while (tetromino.getCol() > finder.getCol(best)
+            && game.moveTetrominoLeft()) {
+        }
+
+        while (tetromino.getCol() < finder.getCol(best)
+            && game.moveTetrominoRight()) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.game.TetrisGrid.SquareType;
+import tetris.game.TypeRandomizer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomizerBenchmark {
+    @Param({"bag", "history", "uniform"})
+    public String randomizer;
+
+    private TypeRandomizer typeRandomizer;
+
+    @Setup
+    public void setUp() {
+        typeRandomizer = TypeRandomizer.forName(randomizer);
+        typeRandomizer.reset(1);
+    }
+
+    @Benchmark
+    public SquareType next() {
+        return typeRandomizer.next();
+    }
+
+    @Benchmark
+    public SquareType peek() {
+        return typeRandomizer.peek(TypeRandomizer.MAX_PREVIEW - 1);
+    }
+}
@@ -0,0 +1,73 @@
+package tetris.bench;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.game.TetrisGame;
+import tetris.gui.TetrisEngine;
+import tetris.gui.TetrisPanel;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    private static final int WIDTH = 620, HEIGHT = 650;
+
+    @Param({"10x20", "50x50", "1000x10000"})
+    public String size;
+
+    private TetrisPanel panel;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        panel = new TetrisPanel();
+        panel.setSize(WIDTH, HEIGHT);
+
+        // The engine thread only runs once the panel is displayed, so the
+        // game can be set up here and published by hand
+        TetrisEngine engine = panel.getEngine();
+        TetrisGame game = engine.getGame();
+        game.setBasketSize(Baskets.getCols(size), Baskets.getRows(size));
+        game.setDisplayShadow(true);
+        game.startGame();
+        game.pauseGame();
+        Baskets.fill(game.getBasketGrid(), Baskets.getRows(size) / 2, 1);
+
+        engine.publish();
+        panel.refresh();
+
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        // Swing paints with a fresh graphics context every time
+        Graphics g = image.createGraphics();
+
+        try {
+            panel.paintComponent(g);
+        } finally {
+            g.dispose();
+        }
+
+        return image;
+    }
+}
@@ -0,0 +1,87 @@
+package tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.game.RowScanner;
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RowScanBenchmark {
+    private static final int ROWS = 20;
+
+    @Param({"10", "64", "1024", "4096"})
+    public int cols;
+
+    @Param({"scalar", "vector"})
+    public String scanner;
+
+    private TetrisGrid grid, sparseGrid;
+
+    @Setup
+    public void setUp() {
+        grid = new TetrisGrid(cols, ROWS + 2);
+        grid.setRowScanner(RowScanner.forName(scanner));
+        sparseGrid = new TetrisGrid(cols, ROWS + 2);
+        sparseGrid.setRowScanner(grid.getRowScanner());
+
+        // Fill all but the last square of each row, or only the last one,
+        // so that every test has to look at the whole row
+        for (int row = 0; row < ROWS; ++row) {
+            for (int col = 0; col < cols - 1; ++col) {
+                grid.set(col, row, SquareType.I);
+            }
+
+            sparseGrid.set(cols - 1, row, SquareType.I);
+        }
+    }
+
+    @Benchmark
+    public int findFullRows() {
+        int full = 0;
+
+        for (int row = 0; row < ROWS; ++row) {
+            if (grid.isRowFull(row)) {
+                ++full;
+            }
+        }
+
+        return full;
+    }
+
+    @Benchmark
+    public int clearFullRows() {
+        // Finds no full row, but tests every row in use
+        return grid.clearFullRows();
+    }
+
+    @Benchmark
+    public int findEmptyRows() {
+        int empty = 0;
+
+        for (int row = 0; row < ROWS; ++row) {
+            if (sparseGrid.isRowEmpty(row)) {
+                ++empty;
+            }
+        }
+
+        return empty;
+    }
+}
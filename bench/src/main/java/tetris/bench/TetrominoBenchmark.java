@@ -0,0 +1,86 @@
+package tetris.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+import tetris.game.Tetromino;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TetrominoBenchmark {
+    @Param({"10x20", "50x50"})
+    public String size;
+
+    // Every move redraws the tetromino, and the shadow if it is displayed
+    @Param({"false", "true"})
+    public boolean shadow;
+
+    private TetrisGrid grid;
+
+    private Tetromino tetromino;
+
+    @Setup
+    public void setUp() {
+        grid = Baskets.create(size);
+        Baskets.fill(grid, grid.getNumRows() / 2, 1);
+
+        tetromino = new Tetromino(SquareType.T, grid, shadow);
+    }
+
+    @Benchmark
+    public boolean moveLeftRight() {
+        tetromino.moveLeft();
+
+        return tetromino.moveRight();
+    }
+
+    @Benchmark
+    public boolean rotate() {
+        // Four rotations bring the tetromino back where it started
+        return tetromino.rotate(true);
+    }
+
+    @Benchmark
+    public int moveDown() {
+        // Start over at the top once the tetromino lands
+        if (!tetromino.moveDown()) {
+            respawn();
+        }
+
+        return tetromino.getRow();
+    }
+
+    @Benchmark
+    public Tetromino respawn() {
+        tetromino.removeFromGrid();
+        tetromino.reset(SquareType.T, grid, shadow);
+
+        return tetromino;
+    }
+
+    @Benchmark
+    public int drop() {
+        // Includes a respawn, which is measured on its own above
+        int rowsDropped = tetromino.drop();
+        respawn();
+
+        return rowsDropped;
+    }
+}
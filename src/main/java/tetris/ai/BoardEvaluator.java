@@ -0,0 +1,46 @@
+package tetris.ai;
+
+import tetris.game.TetrisGrid;
+
+public class BoardEvaluator {
+    private double heightWeight, lineWeight, holeWeight, bumpinessWeight;
+
+    public BoardEvaluator() {
+        // Weights tuned for the classic ten-wide basket
+        this(-0.510066, 0.760666, -0.35663, -0.184483);
+    }
+
+    public BoardEvaluator(double heightWeight, double lineWeight,
+            double holeWeight, double bumpinessWeight) {
+        this.heightWeight = heightWeight;
+        this.lineWeight = lineWeight;
+        this.holeWeight = holeWeight;
+        this.bumpinessWeight = bumpinessWeight;
+    }
+
+    public double getLineReward(int lines) {
+        return lineWeight * lines;
+    }
+
+    public double evaluate(TetrisGrid grid) {
+        int aggregateHeight = 0, bumpiness = 0;
+
+        for (int col = 0, previous = 0; col < grid.getNumCols(); ++col) {
+            int height = grid.getColumnHeight(col);
+
+            aggregateHeight += height;
+
+            if (col > 0) {
+                bumpiness += Math.abs(height - previous);
+            }
+
+            previous = height;
+        }
+
+        // Every empty square below the top of its column is a hole
+        int holes = aggregateHeight - grid.getNumOccupied();
+
+        return heightWeight * aggregateHeight + holeWeight * holes
+            + bumpinessWeight * bumpiness;
+    }
+}
@@ -0,0 +1,151 @@
+package tetris.ai;
+
+import tetris.game.PlacementFinder;
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+
+public class PlacementSearch {
+    public static final double LOSS = -1e9;
+
+    // Number of searched boards between checks of the deadline
+    private static final int CHECK_INTERVAL = 64;
+
+    private final BoardEvaluator evaluator;
+
+    private final TranspositionTable table;
+
+    // Finder and scratch grid for each remaining depth
+    private PlacementFinder[] finders;
+
+    private TetrisGrid[] grids;
+
+    private long deadline;
+
+    private int boards;
+
+    private boolean aborted;
+
+    public PlacementSearch(BoardEvaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+
+        finders = new PlacementFinder[0];
+        grids = new TetrisGrid[0];
+        deadline = Long.MAX_VALUE;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+        aborted = false;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    public double place(PlacementFinder finder, int index, TetrisGrid grid,
+            TetrisGrid destinationGrid) {
+        // Locking entirely above the basket ends the game
+        if (finder.getBottomRow(index) >= grid.getNumRows() - 2) {
+            return LOSS;
+        }
+
+        destinationGrid.copyFrom(grid);
+        finder.place(index, destinationGrid);
+
+        return evaluator.getLineReward(destinationGrid.clearFullRows());
+    }
+
+    public double search(PlacementFinder finder, int placement,
+            TetrisGrid grid, SquareType[] types, int depth) {
+        prepare(grid, depth);
+
+        // Place the first tetromino, then search the ones after it
+        TetrisGrid child = grids[depth];
+        double value = place(finder, placement, grid, child);
+
+        if (value > LOSS) {
+            value += search(child, types, 1, depth - 1);
+        }
+
+        return aborted ? LOSS : value;
+    }
+
+    public double search(TetrisGrid grid, SquareType[] types, int index,
+            int depth) {
+        if (depth == 0 || index >= types.length) {
+            return evaluate(grid);
+        }
+
+        // Give up on the whole search once the deadline has passed
+        if (aborted || ++boards % CHECK_INTERVAL == 0
+            && System.nanoTime() - deadline > 0) {
+            aborted = true;
+            return LOSS;
+        }
+
+        prepare(grid, depth);
+
+        PlacementFinder finder = finders[depth];
+        TetrisGrid child = grids[depth];
+        double best = LOSS;
+
+        // Deeper pieces are only dropped straight down, which is far cheaper
+        for (int i = 0, n = finder.findDrops(grid, types[index]); i < n; ++i) {
+            double value = place(finder, i, grid, child);
+
+            if (value > LOSS) {
+                value += search(child, types, index + 1, depth - 1);
+            }
+
+            if (aborted) {
+                return LOSS;
+            }
+
+            best = Math.max(best, value);
+        }
+
+        return best;
+    }
+
+    public double evaluate(TetrisGrid grid) {
+        long key = grid.hashOccupancy();
+        double value = table.get(key);
+
+        // Reuse evaluations from earlier searches when possible
+        if (Double.isNaN(value)) {
+            value = evaluator.evaluate(grid);
+            table.put(key, value);
+        }
+
+        return value;
+    }
+
+    private void prepare(TetrisGrid grid, int depth) {
+        if (finders.length <= depth) {
+            PlacementFinder[] newFinders = new PlacementFinder[depth + 1];
+            TetrisGrid[] newGrids = new TetrisGrid[depth + 1];
+
+            System.arraycopy(finders, 0, newFinders, 0, finders.length);
+            System.arraycopy(grids, 0, newGrids, 0, grids.length);
+
+            finders = newFinders;
+            grids = newGrids;
+        }
+
+        if (finders[depth] == null) {
+            finders[depth] = new PlacementFinder();
+        }
+
+        // Replace the scratch grid if the basket size changed
+        if (grids[depth] == null
+            || grids[depth].getNumCols() != grid.getNumCols()
+            || grids[depth].getNumRows() != grid.getNumRows()) {
+            grids[depth] = new TetrisGrid(grid.getNumCols(), grid.getNumRows());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tetris.ai;
+
+import java.util.concurrent.RecursiveAction;
+
+class RootSearchTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final TetrisBot bot;
+
+    private final int from, to;
+
+    RootSearchTask(TetrisBot bot, int from, int to) {
+        this.bot = bot;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        // Split down to single moves, which vary a lot in cost
+        if (to - from > 1) {
+            int middle = (from + to) >>> 1;
+
+            // Keep the first half, with the previous best move, on this thread
+            RootSearchTask right = new RootSearchTask(bot, middle, to);
+            right.fork();
+
+            new RootSearchTask(bot, from, middle).compute();
+            right.join();
+
+            return;
+        }
+
+        bot.searchCandidates(from, to);
+    }
+}
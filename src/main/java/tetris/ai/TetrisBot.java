@@ -0,0 +1,285 @@
+package tetris.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import tetris.game.Action;
+import tetris.game.PlacementFinder;
+import tetris.game.TetrisGame;
+import tetris.game.TetrisGame.GameState;
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+import tetris.game.TetrisPlayer;
+import tetris.game.Tetromino;
+import tetris.game.TypeRandomizer;
+
+public class TetrisBot implements TetrisPlayer {
+    public static final long DEFAULT_BUDGET_NANOS = 1000000;
+
+    public static final int DEFAULT_MAX_DEPTH = 4;
+
+    // Size of the evaluation cache kept between moves, as a power of two
+    private static final int TABLE_BITS = 16;
+
+    private final long budgetNanos;
+
+    private final int maxDepth;
+
+    private final ForkJoinPool pool;
+
+    private final TranspositionTable table;
+
+    // Each thread searches with its own scratch grids and finders
+    private final ThreadLocal<PlacementSearch> searches;
+
+    private final PlacementFinder rootFinder, holdFinder;
+
+    private final SquareType[] types, holdTypes;
+
+    private final List<Action> actions;
+
+    private boolean stepwise, targetHold;
+
+    private long plannedPiece;
+
+    // The planned placement among those rootFinder found
+    private int targetIndex, lastDepth;
+
+    // State of the current iteration, shared by the root search tasks
+    private TetrisGrid grid;
+
+    private int[] order;
+
+    private double[] values;
+
+    private int depth, numPlacements;
+
+    private long deadline;
+
+    private volatile boolean aborted;
+
+    public TetrisBot() {
+        this(DEFAULT_BUDGET_NANOS, DEFAULT_MAX_DEPTH);
+    }
+
+    public TetrisBot(long budgetNanos, int maxDepth) {
+        this(budgetNanos, maxDepth, null);
+    }
+
+    public TetrisBot(long budgetNanos, int maxDepth, ForkJoinPool pool) {
+        // Without a hold tetromino, holding looks one type further ahead,
+        // so the deepest search reads the last type of the preview
+        if (maxDepth < 1 || maxDepth > TypeRandomizer.MAX_PREVIEW + 1) {
+            throw new IllegalArgumentException("Illegal depth: " + maxDepth);
+        }
+
+        this.budgetNanos = budgetNanos;
+        this.maxDepth = maxDepth;
+        this.pool = pool;
+
+        final BoardEvaluator evaluator = new BoardEvaluator();
+
+        table = new TranspositionTable(TABLE_BITS);
+        searches = new ThreadLocal<PlacementSearch>() {
+            @Override
+            protected PlacementSearch initialValue() {
+                return new PlacementSearch(evaluator, table);
+            }
+        };
+        rootFinder = new PlacementFinder();
+        holdFinder = new PlacementFinder();
+        types = new SquareType[maxDepth];
+        holdTypes = new SquareType[maxDepth];
+        actions = new ArrayList<Action>();
+        order = new int[0];
+        values = new double[0];
+
+        stepwise = false;
+        plannedPiece = -1;
+    }
+
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    public void setStepwise(boolean stepwise) {
+        this.stepwise = stepwise;
+    }
+
+    public void reset() {
+        // Forget cached evaluations so that a new game plays the same way
+        table.clear();
+        plannedPiece = -1;
+    }
+
+    @Override
+    public void play(TetrisGame game) {
+        if (game.getState() != GameState.ON) {
+            return;
+        }
+
+        // Plan once per tetromino, and again after holding
+        long piece = game.getPieces() * 2L + (game.isHoldUsed() ? 1 : 0);
+
+        if (piece != plannedPiece) {
+            plannedPiece = piece;
+            plan(game);
+        }
+
+        if (targetHold) {
+            game.perform(Action.HOLD);
+
+            // Plan for the tetromino that came out of the hold
+            if (!stepwise) {
+                play(game);
+            }
+
+            return;
+        }
+
+        // Follow the planned path from wherever the tetromino is now
+        if (!findPath(game)) {
+            // Gravity may have moved the tetromino off the path, so plan
+            // again from where it is now
+            plan(game);
+
+            // Hold instead if that is the better plan now
+            if (targetHold) {
+                play(game);
+                return;
+            }
+
+            if (!findPath(game)) {
+                game.perform(Action.DROP);
+                return;
+            }
+        }
+
+        for (Action action : actions) {
+            game.perform(action);
+
+            if (stepwise) {
+                break;
+            }
+        }
+    }
+
+    private boolean findPath(TetrisGame game) {
+        Tetromino tetromino = game.getCurrentTetromino();
+
+        return targetIndex >= 0
+            && rootFinder.getActions(targetIndex, tetromino.getCol(),
+                tetromino.getRow(), tetromino.getRotation(), actions);
+    }
+
+    void searchCandidates(int from, int to) {
+        PlacementSearch search = searches.get();
+        search.setDeadline(deadline);
+
+        for (int i = from; i < to && !aborted; ++i) {
+            boolean hold = order[i] >= numPlacements;
+            double value =
+                search.search(hold ? holdFinder : rootFinder,
+                    hold ? order[i] - numPlacements : order[i], grid,
+                    hold ? holdTypes : types, depth);
+
+            // Stop every other task too once the deadline has passed
+            if (search.isAborted()) {
+                aborted = true;
+                return;
+            }
+
+            values[i] = value;
+        }
+    }
+
+    private void plan(TetrisGame game) {
+        TypeRandomizer randomizer = game.getRandomizer();
+        SquareType nextType = game.getNextTetromino().getType();
+
+        grid = game.getBasketGrid();
+
+        // Upcoming types without holding: current, next, then the preview
+        types[0] = game.getCurrentTetromino().getType();
+
+        for (int i = 1; i < maxDepth; ++i) {
+            types[i] = i == 1 ? nextType : randomizer.peek(i - 2);
+        }
+
+        // Holding brings out the hold tetromino, or else the next one
+        boolean canHold = !game.isHoldUsed();
+
+        if (game.getHoldTetromino() != null) {
+            holdTypes[0] = game.getHoldTetromino().getType();
+
+            for (int i = 1; i < maxDepth; ++i) {
+                holdTypes[i] = types[i];
+            }
+        } else {
+            for (int i = 0; i < maxDepth; ++i) {
+                holdTypes[i] = i == 0 ? nextType : randomizer.peek(i - 1);
+            }
+        }
+
+        numPlacements = rootFinder.find(game);
+        int numHoldPlacements =
+            canHold ? holdFinder.find(grid, holdTypes[0]) : 0;
+        int numCandidates = numPlacements + numHoldPlacements;
+
+        if (numCandidates == 0) {
+            targetHold = false;
+            targetIndex = -1;
+            return;
+        }
+
+        if (order.length < numCandidates) {
+            order = new int[numCandidates];
+            values = new double[numCandidates];
+        }
+
+        deadline =
+            budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+        aborted = false;
+
+        int best = 0;
+
+        // Deepen until the budget runs out, searching the best move first
+        for (depth = 1; depth <= maxDepth && !aborted; ++depth) {
+            for (int i = 0; i < numCandidates; ++i) {
+                order[i] = i == 0 ? best : i <= best ? i - 1 : i;
+            }
+
+            Arrays.fill(values, 0, numCandidates, Double.NaN);
+
+            if (pool == null) {
+                searchCandidates(0, numCandidates);
+            } else {
+                pool.invoke(new RootSearchTask(this, 0, numCandidates));
+            }
+
+            // A partial iteration still beats the previous best it started
+            // with, so use it only if that move was searched
+            if (Double.isNaN(values[0])) {
+                break;
+            }
+
+            int iterationBest = 0;
+
+            // Break ties by order so that any number of threads agrees
+            for (int i = 1; i < numCandidates; ++i) {
+                if (values[i] > values[iterationBest]) {
+                    iterationBest = i;
+                }
+            }
+
+            best = order[iterationBest];
+            lastDepth = depth;
+        }
+
+        // The hold placement is planned again once the tetromino is out
+        targetHold = best >= numPlacements;
+        targetIndex = targetHold ? -1 : best;
+    }
+}
@@ -0,0 +1,41 @@
+package tetris.ai;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TranspositionTable {
+    // Key and value bits of each entry, stored next to each other
+    private final AtomicLongArray entries;
+
+    private final int mask;
+
+    public TranspositionTable(int sizeBits) {
+        entries = new AtomicLongArray(2 << sizeBits);
+        mask = (1 << sizeBits) - 1;
+    }
+
+    public double get(long key) {
+        int index = ((int)(key ^ key >>> 32) & mask) << 1;
+        long bits = entries.get(index + 1);
+
+        // The key is stored xored with the value, so that an entry torn by
+        // concurrent writers does not match; a zero key is never found
+        return key != 0 && (entries.get(index) ^ bits) == key ? Double
+            .longBitsToDouble(bits) : Double.NaN;
+    }
+
+    public void put(long key, double value) {
+        int index = ((int)(key ^ key >>> 32) & mask) << 1;
+        long bits = Double.doubleToRawLongBits(value);
+
+        // Always replace, keeping the most recent boards
+        entries.lazySet(index, key ^ bits);
+        entries.lazySet(index + 1, bits);
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i += 2) {
+            entries.set(i, 0);
+            entries.set(i + 1, 0);
+        }
+    }
+}
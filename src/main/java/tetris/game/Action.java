@@ -0,0 +1,6 @@
+package tetris.game;
+
+public enum Action {
+    MOVE_LEFT, MOVE_RIGHT, MOVE_DOWN, ROTATE_CW, ROTATE_CCW, SOFT_DROP, DROP,
+    HOLD, GRAVITY
+}
@@ -0,0 +1,64 @@
+package tetris.game;
+
+import java.nio.ByteBuffer;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public class BagRandomizer extends TypeRandomizer {
+    public static final String NAME = "bag";
+
+    private SquareType[] bag;
+
+    private int remaining;
+
+    public BagRandomizer() {
+        bag = TETROMINO_TYPES.clone();
+        remaining = 0;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected void resetTypes() {
+        // Restore the order of the bag, which the last game shuffled
+        System.arraycopy(TETROMINO_TYPES, 0, bag, 0, bag.length);
+        remaining = 0;
+    }
+
+    @Override
+    protected void saveTypes(ByteBuffer buffer) {
+        for (SquareType type : bag) {
+            buffer.put((byte)type.ordinal());
+        }
+
+        buffer.put((byte)remaining);
+    }
+
+    @Override
+    protected void restoreTypes(ByteBuffer buffer) {
+        for (int i = 0; i < bag.length; ++i) {
+            bag[i] = SQUARE_TYPES[buffer.get()];
+        }
+
+        remaining = buffer.get();
+    }
+
+    @Override
+    protected SquareType generateType() {
+        // Refill the bag if necessary
+        if (remaining == 0) {
+            remaining = bag.length;
+        }
+
+        // Swap a random remaining type to the end of the bag and take it
+        int index = nextInt(remaining--);
+        SquareType type = bag[index];
+        bag[index] = bag[remaining];
+        bag[remaining] = type;
+
+        return type;
+    }
+}
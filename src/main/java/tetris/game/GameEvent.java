@@ -0,0 +1,67 @@
+package tetris.game;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public class GameEvent {
+    private static final GameEventType[] TYPES = GameEventType.values();
+
+    private static final SquareType[] SQUARE_TYPES = SquareType.values();
+
+    private long sequence, time;
+
+    private GameEventType type;
+
+    private SquareType piece;
+
+    private int col, row, rotation, value;
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    // Game time in milliseconds, which excludes pauses
+    public long getTime() {
+        return time;
+    }
+
+    public GameEventType getType() {
+        return type;
+    }
+
+    // The tetromino the event is about, or null for lines, levels, and the
+    // end of the game
+    public SquareType getPiece() {
+        return piece;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    // The action of a move or rotation, the pieces locked for spawns and
+    // locks, the lines cleared, the new level, or the final score
+    public int getValue() {
+        return value;
+    }
+
+    void set(long sequence, long time, long header, long position) {
+        int pieceIndex = (int)(header >>> 8 & 0xFF);
+
+        this.sequence = sequence;
+        this.time = time;
+        type = TYPES[(int)(header & 0xFF)];
+        piece = pieceIndex == 0 ? null : SQUARE_TYPES[pieceIndex - 1];
+        rotation = (int)(header >>> 16 & 0xFF);
+        value = (int)(header >>> 32);
+        col = (int)(position >>> 32);
+        row = (int)position;
+    }
+}
@@ -0,0 +1,50 @@
+package tetris.game;
+
+public class GameEventCursor {
+    private final GameEventRing ring;
+
+    // The sequence number of the next event to read
+    private long next;
+
+    private long lost;
+
+    GameEventCursor(GameEventRing ring, long next) {
+        this.ring = ring;
+        this.next = next;
+        lost = 0;
+    }
+
+    // Events that were overwritten before this cursor reached them
+    public long getLost() {
+        return lost;
+    }
+
+    public long getBacklog() {
+        return Math.max(0, ring.getPublished() + 1 - next);
+    }
+
+    public boolean poll(GameEvent event) {
+        while (true) {
+            long published = ring.getPublished();
+
+            if (next > published) {
+                return false;
+            }
+
+            // Skip the events that the ring no longer holds
+            long oldest = published - ring.getCapacity() + 1;
+
+            if (next < oldest) {
+                lost += oldest - next;
+                next = oldest;
+            }
+
+            if (ring.read(next, event)) {
+                ++next;
+                return true;
+            }
+
+            // Overwritten while it was read, so look again from the oldest
+        }
+    }
+}
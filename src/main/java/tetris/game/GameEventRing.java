@@ -0,0 +1,98 @@
+package tetris.game;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public class GameEventRing {
+    // Each slot holds its sequence number, the game time, the type, piece,
+    // rotation, and value, and finally the column and row
+    private static final int SLOT_LONGS = 4;
+
+    private final AtomicLongArray slots;
+
+    private final int capacity, mask;
+
+    // The last sequence number published, or -1 before the first
+    private final AtomicLong published;
+
+    // Owned by the one thread that publishes
+    private long next;
+
+    public GameEventRing(int capacity) {
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException(
+                "Capacity must be a power of two");
+        }
+
+        this.capacity = capacity;
+        mask = capacity - 1;
+        slots = new AtomicLongArray(capacity * SLOT_LONGS);
+        published = new AtomicLong(-1);
+        next = 0;
+
+        // No slot holds a valid sequence number until it is written
+        for (int i = 0; i < capacity; ++i) {
+            slots.set(i * SLOT_LONGS, -1);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getPublished() {
+        return published.getAcquire();
+    }
+
+    public GameEventCursor newCursor() {
+        // Start with the next event, not with whatever the ring still holds
+        return new GameEventCursor(this, published.get() + 1);
+    }
+
+    public void publish(GameEventType type, SquareType piece, int col,
+            int row, int rotation, int value, long time) {
+        long sequence = next++;
+        int base = (int)(sequence & mask) * SLOT_LONGS;
+
+        // Never wait for consumers; mark the slot first, so that any
+        // consumer reading it meanwhile sees it was overwritten
+        slots.setOpaque(base, -1);
+        VarHandle.storeStoreFence();
+
+        slots.setPlain(base + 1, time);
+        slots.setPlain(base + 2, type.ordinal()
+            | (piece == null ? 0 : piece.ordinal() + 1) << 8
+            | (rotation & 0xFF) << 16 | (long)value << 32);
+        slots.setPlain(base + 3, (long)col << 32 | row & 0xFFFFFFFFL);
+        slots.setRelease(base, sequence);
+
+        published.setRelease(sequence);
+    }
+
+    boolean read(long sequence, GameEvent event) {
+        int base = (int)(sequence & mask) * SLOT_LONGS;
+
+        if (slots.getAcquire(base) != sequence) {
+            return false;
+        }
+
+        long time = slots.getPlain(base + 1);
+        long header = slots.getPlain(base + 2);
+        long position = slots.getPlain(base + 3);
+
+        // Only keep what was read if the slot was not reused meanwhile, as
+        // with the optimistic reads of a StampedLock
+        VarHandle.loadLoadFence();
+
+        if (slots.getOpaque(base) != sequence) {
+            return false;
+        }
+
+        event.set(sequence, time, header, position);
+
+        return true;
+    }
+}
@@ -0,0 +1,5 @@
+package tetris.game;
+
+public enum GameEventType {
+    SPAWN, MOVE, ROTATE, HOLD, LOCK, LINES_CLEARED, LEVEL_UP, GAME_OVER
+}
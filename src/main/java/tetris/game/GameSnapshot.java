@@ -0,0 +1,156 @@
+package tetris.game;
+
+import tetris.game.TetrisGame.GameState;
+
+public class GameSnapshot {
+    // Larger baskets are shown through a window of at most this size
+    public static final int MAX_VIEW_COLS = 64, MAX_VIEW_ROWS = 64;
+
+    // The window follows the current tetromino in steps of this many
+    // squares, so that it does not scroll with every move
+    private static final int VIEW_STEP = 16;
+
+    private TetrisGrid basketGrid, nextGrid, holdGrid;
+
+    private GameState gameState;
+
+    private int score, lines, level;
+
+    private boolean displayShadow;
+
+    // Where the window lies in the basket
+    private int viewCol, viewRow;
+
+    // Counts the snapshots published, to tell which inputs one shows
+    private long version;
+
+    public GameSnapshot() {
+        gameState = GameState.OFF;
+    }
+
+    public TetrisGrid getBasketGrid() {
+        return basketGrid;
+    }
+
+    public TetrisGrid getNextGrid() {
+        return nextGrid;
+    }
+
+    public TetrisGrid getHoldGrid() {
+        return holdGrid;
+    }
+
+    public GameState getState() {
+        return gameState;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isDisplayShadow() {
+        return displayShadow;
+    }
+
+    public int getViewCol() {
+        return viewCol;
+    }
+
+    public int getViewRow() {
+        return viewRow;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public void capture(TetrisGame game) {
+        captureBasket(game.getBasketGrid(), game.getCurrentTetromino());
+        nextGrid = copyGrid(nextGrid, game.getNextGrid());
+        holdGrid = copyGrid(holdGrid, game.getHoldGrid());
+
+        gameState = game.getState();
+        score = game.getScore();
+        lines = game.getLines();
+        level = game.getLevel();
+        displayShadow = game.isDisplayShadow();
+    }
+
+    public void copyFrom(GameSnapshot other) {
+        basketGrid = copyGrid(basketGrid, other.basketGrid);
+        nextGrid = copyGrid(nextGrid, other.nextGrid);
+        holdGrid = copyGrid(holdGrid, other.holdGrid);
+
+        gameState = other.gameState;
+        score = other.score;
+        lines = other.lines;
+        level = other.level;
+        displayShadow = other.displayShadow;
+        viewCol = other.viewCol;
+        viewRow = other.viewRow;
+        version = other.version;
+    }
+
+    private void captureBasket(TetrisGrid grid, Tetromino tetromino) {
+        int cols = Math.min(grid.getNumCols(), MAX_VIEW_COLS);
+        int rows = Math.min(grid.getNumRows() - 2, MAX_VIEW_ROWS) + 2;
+
+        if (cols == grid.getNumCols() && rows == grid.getNumRows()) {
+            basketGrid = copyGrid(basketGrid, grid);
+            viewCol = viewRow = 0;
+
+            return;
+        }
+
+        // Follow the tetromino, or where one appears, keeping it in the
+        // upper part of the window so that most of what is below shows
+        int col = (grid.getNumCols() - 1) / 2, row = grid.getSpawnRow();
+
+        if (tetromino != null) {
+            col = tetromino.getCol();
+            row = tetromino.getRow();
+        }
+
+        viewCol = getViewStart(col - cols / 2, grid.getNumCols() - cols);
+        viewRow =
+            getViewStart(row - (rows - 2) * 3 / 4, grid.getNumRows() - rows);
+
+        if (basketGrid == null || basketGrid.getNumCols() != cols
+            || basketGrid.getNumRows() != rows) {
+            basketGrid = new TetrisGrid(cols, rows);
+        }
+
+        basketGrid.copyWindow(grid, viewCol, viewRow);
+    }
+
+    private static int getViewStart(int start, int maxStart) {
+        // Round to the nearest step, then keep the window in the basket
+        start = Math.floorDiv(start + VIEW_STEP / 2, VIEW_STEP) * VIEW_STEP;
+
+        return Math.max(0, Math.min(start, maxStart));
+    }
+
+    private static TetrisGrid copyGrid(TetrisGrid grid, TetrisGrid other) {
+        // Allocate only when the size of the grid changes
+        if (grid == null || grid.getNumCols() != other.getNumCols()
+            || grid.getNumRows() != other.getNumRows()) {
+            grid = new TetrisGrid(other.getNumCols(), other.getNumRows());
+        }
+
+        grid.copyFrom(other);
+
+        return grid;
+    }
+}
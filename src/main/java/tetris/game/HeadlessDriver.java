@@ -0,0 +1,59 @@
+package tetris.game;
+
+import tetris.game.TetrisGame.GameState;
+
+public class HeadlessDriver {
+    private ManualClock clock;
+
+    private TetrisGame game;
+
+    private TetrisPlayer player;
+
+    public HeadlessDriver() {
+        clock = new ManualClock();
+        game = new TetrisGame(clock);
+    }
+
+    public HeadlessDriver(long seed) {
+        clock = new ManualClock();
+        game = new TetrisGame(clock, seed);
+    }
+
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    public ManualClock getClock() {
+        return clock;
+    }
+
+    public void setPlayer(TetrisPlayer player) {
+        this.player = player;
+    }
+
+    public boolean step() {
+        // Let the player move before gravity is applied
+        if (player != null && game.getState() == GameState.ON) {
+            player.play(game);
+        }
+
+        // Stop once the game is over or paused
+        if (game.getState() != GameState.ON || !clock.nextTick()) {
+            return false;
+        }
+
+        game.moveTetrominoDownTimer();
+
+        return true;
+    }
+
+    public long run(long maxSteps) {
+        long steps = 0;
+
+        while (steps < maxSteps && step()) {
+            ++steps;
+        }
+
+        return steps;
+    }
+}
@@ -0,0 +1,93 @@
+package tetris.game;
+
+import java.nio.ByteBuffer;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public class HistoryRandomizer extends TypeRandomizer {
+    public static final String NAME = "history";
+
+    private static final int HISTORY_SIZE = 4, ROLLS = 6;
+
+    private SquareType[] history;
+
+    private int historyStart;
+
+    private boolean first;
+
+    public HistoryRandomizer() {
+        history = new SquareType[HISTORY_SIZE];
+        resetTypes();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected void resetTypes() {
+        // Start from a history that discourages early S and Z
+        history[0] = history[2] = SquareType.Z;
+        history[1] = history[3] = SquareType.S;
+        historyStart = 0;
+        first = true;
+    }
+
+    @Override
+    protected void saveTypes(ByteBuffer buffer) {
+        for (SquareType type : history) {
+            buffer.put((byte)type.ordinal());
+        }
+
+        buffer.put((byte)historyStart);
+        buffer.put((byte)(first ? 1 : 0));
+    }
+
+    @Override
+    protected void restoreTypes(ByteBuffer buffer) {
+        for (int i = 0; i < HISTORY_SIZE; ++i) {
+            history[i] = SQUARE_TYPES[buffer.get()];
+        }
+
+        historyStart = buffer.get();
+        first = buffer.get() != 0;
+    }
+
+    @Override
+    protected SquareType generateType() {
+        SquareType type;
+
+        if (first) {
+            // Never start with an S, Z, or O
+            do {
+                type = TETROMINO_TYPES[nextInt(TETROMINO_TYPES.length)];
+            } while (type == SquareType.S || type == SquareType.Z
+                || type == SquareType.O);
+
+            first = false;
+        } else {
+            // Reroll a limited number of times while the type is recent
+            type = TETROMINO_TYPES[nextInt(TETROMINO_TYPES.length)];
+
+            for (int roll = 1; roll < ROLLS && isRecent(type); ++roll) {
+                type = TETROMINO_TYPES[nextInt(TETROMINO_TYPES.length)];
+            }
+        }
+
+        history[historyStart] = type;
+        historyStart = (historyStart + 1) % HISTORY_SIZE;
+
+        return type;
+    }
+
+    private boolean isRecent(SquareType type) {
+        for (SquareType recent : history) {
+            if (recent == type) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
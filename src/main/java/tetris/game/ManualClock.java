@@ -0,0 +1,75 @@
+package tetris.game;
+
+public class ManualClock implements TetrisClock {
+    private long time, deadline;
+
+    private int delay;
+
+    private boolean running;
+
+    public ManualClock() {
+        time = deadline = 0;
+        delay = 1000;
+        running = false;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getDelay() {
+        return delay;
+    }
+
+    @Override
+    public void setDelay(int delay) {
+        this.delay = delay;
+    }
+
+    @Override
+    public void start() {
+        if (!running) {
+            restart();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void restart() {
+        running = true;
+        deadline = time + delay;
+    }
+
+    public boolean nextTick() {
+        if (!running) {
+            return false;
+        }
+
+        // Jump straight to the next tick and schedule the one after it
+        time = deadline;
+        deadline += delay;
+
+        return true;
+    }
+
+    public boolean advanceTo(long until) {
+        // Stop at the next tick if it is due before the given time
+        if (running && deadline <= until) {
+            return nextTick();
+        }
+
+        time = Math.max(time, until);
+
+        return false;
+    }
+}
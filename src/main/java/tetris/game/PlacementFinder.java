@@ -0,0 +1,318 @@
+package tetris.game;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public class PlacementFinder {
+    // Squares lie at most this far from a tetromino's center
+    private static final int MARGIN = 2;
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private TetrisGrid grid;
+
+    private SquareType type;
+
+    private int width, numStates, stamp, numPlacements;
+
+    private boolean hasActions;
+
+    // Search state, indexed by encoded (col, row, rotation) states
+    private int[] visited, parents;
+
+    private byte[] parentActions;
+
+    private int[] queue, placements;
+
+    public PlacementFinder() {
+        width = stamp = numPlacements = 0;
+        visited = parents = queue = placements = new int[0];
+        parentActions = new byte[0];
+    }
+
+    public int find(TetrisGame game) {
+        Tetromino tetromino = game.getCurrentTetromino();
+
+        return find(game.getBasketGrid(), tetromino.getType(),
+            tetromino.getCol(), tetromino.getRow(), tetromino.getRotation());
+    }
+
+    public int find(TetrisGrid grid, SquareType type) {
+        int col = (grid.getNumCols() - 1) / 2, row = grid.getSpawnRow();
+
+        // Start where a new tetromino appears, moved down once if possible
+        if (Tetromino.fits(grid, Tetromino.getShape(type, 0), col, row - 1)) {
+            --row;
+        }
+
+        return find(grid, type, col, row, 0);
+    }
+
+    public int find(TetrisGrid grid, SquareType type, int col, int row,
+            int rotation) {
+        this.grid = grid;
+        this.type = type;
+        numPlacements = 0;
+        hasActions = true;
+
+        prepare();
+
+        int start = encode(col, row, rotation);
+
+        if (start >= numStates
+            || !Tetromino.fits(grid, Tetromino.getShape(type, rotation), col,
+                row)) {
+            return 0;
+        }
+
+        int head = 0, tail = 0;
+
+        queue[tail++] = start;
+        visited[queue[0]] = stamp;
+        parents[queue[0]] = -1;
+
+        // Breadth-first search, so every path uses the fewest actions
+        while (head < tail) {
+            int state = queue[head++];
+            int stateCol = getStateCol(state), stateRow = getStateRow(state);
+            int stateRotation = state % Tetromino.NUM_ROTATIONS;
+            int shape = Tetromino.getShape(type, stateRotation);
+
+            if (Tetromino.fits(grid, shape, stateCol - 1, stateRow)) {
+                tail =
+                    push(tail, state, encode(stateCol - 1, stateRow,
+                        stateRotation), Action.MOVE_LEFT);
+            }
+
+            if (Tetromino.fits(grid, shape, stateCol + 1, stateRow)) {
+                tail =
+                    push(tail, state, encode(stateCol + 1, stateRow,
+                        stateRotation), Action.MOVE_RIGHT);
+            }
+
+            // Rotate exactly as Tetromino.rotate() does, including kicks
+            if (type != SquareType.O) {
+                tail = pushRotation(tail, state, shape, true);
+                tail = pushRotation(tail, state, shape, false);
+            }
+
+            int distance =
+                Tetromino.getDropDistance(grid, shape, stateCol, stateRow);
+
+            // States that cannot move down are the final placements
+            if (distance == 0) {
+                placements[numPlacements++] = state;
+            } else {
+                tail =
+                    push(tail, state, encode(stateCol, stateRow - distance,
+                        stateRotation), Action.SOFT_DROP);
+                tail =
+                    push(tail, state, encode(stateCol, stateRow - 1,
+                        stateRotation), Action.MOVE_DOWN);
+            }
+        }
+
+        return numPlacements;
+    }
+
+    public int findDrops(TetrisGrid grid, SquareType type) {
+        this.grid = grid;
+        this.type = type;
+        numPlacements = 0;
+        hasActions = false;
+
+        prepare();
+
+        int row = grid.getSpawnRow();
+        int numRotations = type == SquareType.O ? 1 : Tetromino.NUM_ROTATIONS;
+
+        // Drop every rotation straight down from every column it fits in
+        for (int rotation = 0; rotation < numRotations; ++rotation) {
+            int shape = Tetromino.getShape(type, rotation);
+
+            for (int col = -MARGIN; col < grid.getNumCols() + MARGIN; ++col) {
+                if (Tetromino.fits(grid, shape, col, row)) {
+                    placements[numPlacements++] =
+                        encode(col, row
+                            - Tetromino.getDropDistance(grid, shape, col, row),
+                            rotation);
+                }
+            }
+        }
+
+        return numPlacements;
+    }
+
+    public int getNumPlacements() {
+        return numPlacements;
+    }
+
+    public SquareType getType() {
+        return type;
+    }
+
+    public int getCol(int index) {
+        return getStateCol(placements[index]);
+    }
+
+    public int getRow(int index) {
+        return getStateRow(placements[index]);
+    }
+
+    public int getRotation(int index) {
+        return placements[index] % Tetromino.NUM_ROTATIONS;
+    }
+
+    public int getBottomRow(int index) {
+        int shape = Tetromino.getShape(type, getRotation(index));
+        int row = Integer.MAX_VALUE;
+
+        for (int i = shape; i < shape + Tetromino.NUM_SQUARES; ++i) {
+            row = Math.min(row, Tetromino.SQUARE_ROWS[i]);
+        }
+
+        return row + getRow(index);
+    }
+
+    public void place(int index, TetrisGrid destinationGrid) {
+        int shape = Tetromino.getShape(type, getRotation(index));
+        int col = getCol(index), row = getRow(index);
+
+        // Lock the tetromino's squares into the given grid
+        for (int i = shape; i < shape + Tetromino.NUM_SQUARES; ++i) {
+            destinationGrid.set(Tetromino.SQUARE_COLS[i] + col,
+                Tetromino.SQUARE_ROWS[i] + row, type);
+        }
+    }
+
+    public void getActions(int index, List<Action> actions) {
+        getActions(index, -1, actions);
+    }
+
+    public boolean getActions(int index, int col, int row, int rotation,
+            List<Action> actions) {
+        // Only states inside the searched rows can be on a path
+        if (col < -MARGIN || col >= width - MARGIN || row < -MARGIN) {
+            return false;
+        }
+
+        int start = encode(col, row, rotation);
+
+        return start < numStates && getActions(index, start, actions);
+    }
+
+    private boolean getActions(int index, int start, List<Action> actions) {
+        if (!hasActions) {
+            throw new IllegalStateException("Drops are found without actions");
+        }
+
+        actions.clear();
+
+        // Walk back from the placement to the given state, or else to the
+        // starting state
+        for (int state = placements[index]; state != start; state =
+            parents[state]) {
+            if (parents[state] < 0) {
+                if (start >= 0) {
+                    return false;
+                }
+
+                break;
+            }
+
+            actions.add(ACTIONS[parentActions[state]]);
+        }
+
+        Collections.reverse(actions);
+
+        // Lock with a drop, which can replace a final soft drop
+        int last = actions.size() - 1;
+
+        if (last >= 0 && actions.get(last) == Action.SOFT_DROP) {
+            actions.set(last, Action.DROP);
+        } else {
+            actions.add(Action.DROP);
+        }
+
+        return true;
+    }
+
+    private void prepare() {
+        // Tall grids are searched only up to where tetrominoes appear
+        int numRows = Math.min(grid.getNumRows(), grid.getSpawnRow() + 2);
+
+        width = grid.getNumCols() + 2 * MARGIN;
+        numStates =
+            width * (numRows + 2 * MARGIN) * Tetromino.NUM_ROTATIONS;
+
+        // Grow the tables only when the grid is larger than before
+        if (visited.length < numStates) {
+            visited = new int[numStates];
+            parents = new int[numStates];
+            parentActions = new byte[numStates];
+            queue = new int[numStates];
+            placements = new int[numStates];
+            stamp = 0;
+        }
+
+        // Stamp visited states instead of clearing the table every search
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+    }
+
+    private int pushRotation(int tail, int state, int shape,
+            boolean rotateClockwise) {
+        int stateCol = getStateCol(state), stateRow = getStateRow(state);
+        int rotationTo =
+            (state % Tetromino.NUM_ROTATIONS + (rotateClockwise ? 1
+                : Tetromino.NUM_ROTATIONS - 1))
+                % Tetromino.NUM_ROTATIONS;
+        int shapeTo = Tetromino.getShape(type, rotationTo);
+        int kick = Tetromino.getKick(shape, rotateClockwise);
+
+        // The first kick that fits is the only possible destination
+        for (int i = kick; i < kick + Tetromino.NUM_KICKS; ++i) {
+            int colTo = stateCol + Tetromino.KICK_COLS[i];
+            int rowTo = stateRow + Tetromino.KICK_ROWS[i];
+
+            if (Tetromino.fits(grid, shapeTo, colTo, rowTo)) {
+                return push(tail, state, encode(colTo, rowTo, rotationTo),
+                    rotateClockwise ? Action.ROTATE_CW : Action.ROTATE_CCW);
+            }
+        }
+
+        return tail;
+    }
+
+    private int push(int tail, int parent, int state, Action action) {
+        // Kicks can climb above the searched rows, but never usefully
+        if (state >= numStates || visited[state] == stamp) {
+            return tail;
+        }
+
+        visited[state] = stamp;
+        parents[state] = parent;
+        parentActions[state] = (byte)action.ordinal();
+        queue[tail] = state;
+
+        return tail + 1;
+    }
+
+    private int encode(int col, int row, int rotation) {
+        return ((row + MARGIN) * width + col + MARGIN)
+            * Tetromino.NUM_ROTATIONS + rotation;
+    }
+
+    private int getStateCol(int state) {
+        return state / Tetromino.NUM_ROTATIONS % width - MARGIN;
+    }
+
+    private int getStateRow(int state) {
+        return state / Tetromino.NUM_ROTATIONS / width - MARGIN;
+    }
+}
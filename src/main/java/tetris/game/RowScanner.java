@@ -0,0 +1,86 @@
+package tetris.game;
+
+public class RowScanner {
+    public static final String NAME = "scalar";
+
+    // Loaded by name, so that the game runs without the incubator module
+    private static final String VECTOR_CLASS = "tetris.game.VectorRowScanner";
+
+    private static final RowScanner SCALAR = new RowScanner();
+
+    private static final RowScanner DEFAULT = loadDefault();
+
+    protected RowScanner() {
+    }
+
+    public static RowScanner forName(String name) {
+        if (name.equals(NAME)) {
+            return SCALAR;
+        } else if (name.equals(VectorRowScanner.NAME)) {
+            RowScanner scanner = loadVector();
+
+            if (scanner == null) {
+                throw new IllegalArgumentException(
+                    "Vector API unavailable, run with --add-modules "
+                        + "jdk.incubator.vector");
+            }
+
+            return scanner;
+        }
+
+        throw new IllegalArgumentException("Unknown row scanner: " + name);
+    }
+
+    public static RowScanner forWords(int wordsPerRow) {
+        // Narrow rows are scanned faster one word at a time
+        return wordsPerRow >= DEFAULT.getMinWords() ? DEFAULT : SCALAR;
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public int getMinWords() {
+        return 1;
+    }
+
+    public boolean isFull(long[] words, long lastWordMask) {
+        int last = words.length - 1;
+
+        for (int i = 0; i < last; ++i) {
+            if (words[i] != -1L) {
+                return false;
+            }
+        }
+
+        return words[last] == lastWordMask;
+    }
+
+    public boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static RowScanner loadDefault() {
+        RowScanner scanner = loadVector();
+
+        return scanner != null ? scanner : SCALAR;
+    }
+
+    private static RowScanner loadVector() {
+        try {
+            return (RowScanner)Class.forName(VECTOR_CLASS)
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        } catch (LinkageError ex) {
+            // Without the jdk.incubator.vector module, the class cannot load
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package tetris.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SnapshotBuffer {
+    // The middle snapshot is handed between the two sides, and is marked
+    // fresh from when it is published until it is taken
+    private static final int INDEX_MASK = 3, FRESH = 4;
+
+    private final GameSnapshot[] snapshots;
+
+    private final AtomicInteger middle;
+
+    // Owned by the writer and by the reader respectively
+    private int back, front;
+
+    public SnapshotBuffer() {
+        snapshots =
+            new GameSnapshot[] {new GameSnapshot(), new GameSnapshot(),
+                new GameSnapshot()};
+
+        back = 0;
+        middle = new AtomicInteger(1);
+        front = 2;
+    }
+
+    public GameSnapshot getBack() {
+        return snapshots[back];
+    }
+
+    public GameSnapshot getFront() {
+        return snapshots[front];
+    }
+
+    public void publish() {
+        // Swap the filled back snapshot for the middle one, taken or not
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    public boolean acquire() {
+        if ((middle.get() & FRESH) == 0) {
+            return false;
+        }
+
+        // Nothing but the writer changes the middle, and only to another
+        // fresh snapshot, so the swap always takes the latest one
+        front = middle.getAndSet(front) & INDEX_MASK;
+
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package tetris.game;
+
+public interface TetrisClock {
+    long getTime();
+
+    int getDelay();
+
+    void setDelay(int delay);
+
+    void start();
+
+    void stop();
+
+    void restart();
+}
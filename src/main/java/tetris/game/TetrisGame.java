@@ -1,10 +1,17 @@
 package tetris.game;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-
-import javax.swing.Timer;
+import java.util.List;
 
 import tetris.game.TetrisGrid.SquareType;
+import tetris.jfr.GameOverEvent;
+import tetris.jfr.HoldEvent;
+import tetris.jfr.LevelUpEvent;
+import tetris.jfr.LineClearEvent;
+import tetris.jfr.PieceLockEvent;
+import tetris.jfr.PieceSpawnEvent;
 
 public class TetrisGame {
     public enum GameState {
@@ -13,26 +20,51 @@ public class TetrisGame {
 
     public static final int MAX_LEVEL = 20, SMALL_GRID_SIZE = 4;
 
+    // Large enough for stress tests, small enough for int snapshot sizes
+    public static final int MAX_BASKET_COLS = 4096, MAX_BASKET_ROWS = 32768;
+
     private static final int DEFAULT_BASKET_COLS = 10,
             DEFAULT_BASKET_ROWS = 20, LINES_PER_LEVEL = 10,
             MILLIS_PER_LEVEL = 50;
 
-    private Timer stepTimer;
+    // "TGS1", at the start of every snapshot
+    private static final int SNAPSHOT_MAGIC = 0x54475331;
+
+    private static final GameState[] GAME_STATES = GameState.values();
+
+    private TetrisClock stepClock;
 
     private TetrisGrid basketGrid, nextGrid, holdGrid;
 
-    private TypeGenerator typeGenerator;
+    private TypeRandomizer typeRandomizer;
+
+    private List<TetrisListener> listeners;
+
+    private TetrisMonitor monitor;
+
+    private GameEventRing events;
 
     private Tetromino currentTetromino, nextTetromino, holdTetromino;
 
+    // Hold tetromino kept while nothing is held, for the next hold or for
+    // restoring snapshots without allocating
+    private Tetromino spareTetromino;
+
     private GameState gameState;
 
-    private int score, lines, level, initialLevel;
+    private int score, lines, level, initialLevel, pieces;
+
+    private long seed, nextSeed;
 
     private boolean rotateClockwise, moveAfterDrop, displayShadow, holdUsed;
 
-    public TetrisGame(Timer timer) {
-        stepTimer = timer;
+    public TetrisGame(TetrisClock clock) {
+        this(clock, System.nanoTime());
+    }
+
+    public TetrisGame(TetrisClock clock, long seed) {
+        stepClock = clock;
+        nextSeed = seed;
 
         // 2 extra spaces above, for basket only
         basketGrid =
@@ -40,10 +72,11 @@ public class TetrisGame {
         nextGrid = new TetrisGrid(SMALL_GRID_SIZE, SMALL_GRID_SIZE);
         holdGrid = new TetrisGrid(SMALL_GRID_SIZE, SMALL_GRID_SIZE);
 
-        typeGenerator = new TypeGenerator();
+        typeRandomizer = new BagRandomizer();
+        listeners = new ArrayList<TetrisListener>();
 
         gameState = GameState.OFF;
-        score = lines = 0;
+        score = lines = pieces = 0;
         initialLevel = 1;
     }
 
@@ -59,6 +92,18 @@ public class TetrisGame {
         return holdGrid;
     }
 
+    public Tetromino getCurrentTetromino() {
+        return currentTetromino;
+    }
+
+    public Tetromino getNextTetromino() {
+        return nextTetromino;
+    }
+
+    public Tetromino getHoldTetromino() {
+        return holdTetromino;
+    }
+
     public GameState getState() {
         return gameState;
     }
@@ -75,6 +120,26 @@ public class TetrisGame {
         return level;
     }
 
+    public int getInitialLevel() {
+        return initialLevel;
+    }
+
+    public int getPieces() {
+        return pieces;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTime() {
+        return stepClock.getTime();
+    }
+
+    public TypeRandomizer getRandomizer() {
+        return typeRandomizer;
+    }
+
     public boolean isRotateClockwise() {
         return rotateClockwise;
     }
@@ -87,6 +152,30 @@ public class TetrisGame {
         return displayShadow;
     }
 
+    public int getGravityDelay() {
+        return stepClock.getDelay();
+    }
+
+    public boolean isHoldUsed() {
+        return holdUsed;
+    }
+
+    public void addListener(TetrisListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TetrisListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void setEventRing(GameEventRing events) {
+        this.events = events;
+    }
+
+    public void setMonitor(TetrisMonitor monitor) {
+        this.monitor = monitor;
+    }
+
     public void setRotateClockwise(boolean rotateClockwise) {
         this.rotateClockwise = rotateClockwise;
     }
@@ -103,6 +192,15 @@ public class TetrisGame {
         }
     }
 
+    public void setSeed(long seed) {
+        nextSeed = seed;
+    }
+
+    public void setRandomizer(TypeRandomizer typeRandomizer) {
+        endGame();
+        this.typeRandomizer = typeRandomizer;
+    }
+
     public void setInitialLevel(int initialLevel) {
         endGame();
         this.initialLevel = initialLevel;
@@ -113,79 +211,213 @@ public class TetrisGame {
         basketGrid = new TetrisGrid(cols, rows + 2);
     }
 
+    public int getSnapshotSize() {
+        return 64 + typeRandomizer.getName().length()
+            + TypeRandomizer.MAX_SNAPSHOT_SIZE + basketGrid.getSnapshotSize()
+            + nextGrid.getSnapshotSize() + holdGrid.getSnapshotSize() + 3
+            * (1 + Tetromino.SNAPSHOT_SIZE);
+    }
+
+    public void save(ByteBuffer buffer) {
+        String randomizerName = typeRandomizer.getName();
+
+        buffer.putInt(SNAPSHOT_MAGIC);
+        buffer.put((byte)gameState.ordinal());
+        buffer.putInt(score).putInt(lines).putInt(level).putInt(initialLevel)
+            .putInt(pieces);
+        buffer.putLong(seed).putLong(nextSeed);
+        buffer.put((byte)((rotateClockwise ? 1 : 0) | (moveAfterDrop ? 2 : 0)
+            | (displayShadow ? 4 : 0) | (holdUsed ? 8 : 0)));
+        buffer.putInt(stepClock.getDelay());
+
+        // The randomizer's name, so that a different one can be replaced
+        buffer.put((byte)randomizerName.length());
+
+        for (int i = 0; i < randomizerName.length(); ++i) {
+            buffer.put((byte)randomizerName.charAt(i));
+        }
+
+        typeRandomizer.save(buffer);
+
+        basketGrid.save(buffer);
+        nextGrid.save(buffer);
+        holdGrid.save(buffer);
+
+        saveTetromino(buffer, currentTetromino);
+        saveTetromino(buffer, nextTetromino);
+        saveTetromino(buffer, holdTetromino);
+    }
+
+    public void restore(ByteBuffer buffer) {
+        if (buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IllegalArgumentException("Not a game snapshot");
+        }
+
+        gameState = GAME_STATES[buffer.get()];
+        score = buffer.getInt();
+        lines = buffer.getInt();
+        level = buffer.getInt();
+        initialLevel = buffer.getInt();
+        pieces = buffer.getInt();
+        seed = buffer.getLong();
+        nextSeed = buffer.getLong();
+
+        int flags = buffer.get();
+        rotateClockwise = (flags & 1) != 0;
+        moveAfterDrop = (flags & 2) != 0;
+        displayShadow = (flags & 4) != 0;
+        holdUsed = (flags & 8) != 0;
+
+        int delay = buffer.getInt();
+
+        restoreRandomizer(buffer);
+        typeRandomizer.restore(buffer);
+
+        // Reallocate the basket only if its size differs
+        int cols = buffer.getInt(buffer.position());
+        int rows = buffer.getInt(buffer.position() + 4);
+
+        if (cols != basketGrid.getNumCols()
+            || rows != basketGrid.getNumRows()) {
+            basketGrid = new TetrisGrid(cols, rows);
+        }
+
+        basketGrid.restore(buffer);
+        nextGrid.restore(buffer);
+        holdGrid.restore(buffer);
+
+        currentTetromino =
+            restoreTetromino(buffer, currentTetromino, basketGrid);
+        nextTetromino = restoreTetromino(buffer, nextTetromino, nextGrid);
+
+        // Keep an unused hold tetromino for later snapshots that have one
+        Tetromino hold =
+            holdTetromino != null ? holdTetromino : spareTetromino;
+        holdTetromino = restoreTetromino(buffer, hold, holdGrid);
+        spareTetromino = hold;
+
+        stepClock.setDelay(delay);
+
+        if (gameState == GameState.ON) {
+            stepClock.restart();
+        } else {
+            stepClock.stop();
+        }
+    }
+
     public void startGame() {
         basketGrid.clear();
         nextGrid.clear();
         holdGrid.clear();
 
         gameState = GameState.ON;
-        score = lines = 0;
+        score = lines = pieces = 0;
         level = initialLevel;
         holdUsed = false;
 
-        typeGenerator.reset();
+        // Derive the seed of the following game with an LCG step
+        seed = nextSeed;
+        nextSeed = seed * 6364136223846793005L + 1442695040888963407L;
+
+        typeRandomizer.reset(seed);
 
         currentTetromino =
-            new Tetromino(typeGenerator.getNextType(), basketGrid,
+            spawn(currentTetromino, typeRandomizer.next(), basketGrid,
                 displayShadow);
 
         // Move down once for visibility
         currentTetromino.moveDown();
+        PieceSpawnEvent.emit(currentTetromino.getType().name(), pieces);
+        publishEvent(GameEventType.SPAWN, currentTetromino, pieces);
 
         nextTetromino =
-            new Tetromino(typeGenerator.getNextType(), nextGrid, false);
+            spawn(nextTetromino, typeRandomizer.next(), nextGrid, false);
         nextTetromino.moveDown();
 
-        holdTetromino = null;
+        // Keep the hold tetromino for the first hold of this game
+        if (holdTetromino != null) {
+            spareTetromino = holdTetromino;
+            holdTetromino = null;
+        }
+
+        stepClock.setDelay(1000 - (initialLevel - 1) * MILLIS_PER_LEVEL);
+        stepClock.restart();
 
-        stepTimer.setInitialDelay(1000 - (initialLevel - 1) * MILLIS_PER_LEVEL);
-        stepTimer.setDelay(stepTimer.getInitialDelay());
-        stepTimer.restart();
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).gameStarted(this);
+        }
     }
 
     public void pauseGame() {
         if (gameState == GameState.ON) {
             gameState = GameState.PAUSED;
-            stepTimer.stop();
+            stepClock.stop();
         } else if (gameState == GameState.PAUSED) {
             gameState = GameState.ON;
-            stepTimer.start();
+            stepClock.start();
         }
     }
 
     public void endGame() {
+        // Report each game once, however many times it is ended
+        if (gameState != GameState.OFF) {
+            GameOverEvent.emit(score, lines, level, pieces, getTime());
+            publishEvent(GameEventType.GAME_OVER, null, score);
+        }
+
         gameState = GameState.OFF;
-        stepTimer.stop();
+        stepClock.stop();
     }
 
-    public void moveTetrominoLeft() {
-        if (gameState == GameState.ON) {
-            currentTetromino.moveLeft();
+    public boolean moveTetrominoLeft() {
+        if (gameState == GameState.ON && currentTetromino.moveLeft()) {
+            publishMove(Action.MOVE_LEFT);
+            fireAction(Action.MOVE_LEFT);
+            return true;
         }
+
+        return false;
     }
 
-    public void moveTetrominoRight() {
-        if (gameState == GameState.ON) {
-            currentTetromino.moveRight();
+    public boolean moveTetrominoRight() {
+        if (gameState == GameState.ON && currentTetromino.moveRight()) {
+            publishMove(Action.MOVE_RIGHT);
+            fireAction(Action.MOVE_RIGHT);
+            return true;
         }
+
+        return false;
     }
 
-    public void moveTetrominoDown() {
+    public boolean moveTetrominoDown() {
         if (gameState != GameState.ON) {
-            return;
+            return false;
         }
 
         if (currentTetromino.moveDown()) {
             ++score;
 
-            stepTimer.restart();
+            stepClock.restart();
+            publishMove(Action.MOVE_DOWN);
+            fireAction(Action.MOVE_DOWN);
+            return true;
         }
+
+        return false;
     }
 
     public void moveTetrominoDownTimer() {
-        if (gameState == GameState.ON && !currentTetromino.moveDown()) {
+        if (gameState != GameState.ON) {
+            return;
+        }
+
+        if (currentTetromino.moveDown()) {
+            publishMove(Action.GRAVITY);
+        } else {
             nextTetromino();
         }
+
+        fireAction(Action.GRAVITY);
     }
 
     public void dropTetromino(boolean modifyDrop) {
@@ -194,17 +426,63 @@ public class TetrisGame {
 
             score += linesMoved;
 
+            if (linesMoved > 0) {
+                publishMove(moveAfterDrop == modifyDrop ? Action.DROP
+                    : Action.SOFT_DROP);
+            }
+
             if (linesMoved == 0 || moveAfterDrop == modifyDrop) {
                 nextTetromino();
             } else {
-                stepTimer.restart();
+                stepClock.restart();
             }
+
+            // Record the drop independently of the drop setting
+            fireAction(moveAfterDrop == modifyDrop ? Action.DROP
+                : Action.SOFT_DROP);
         }
     }
 
     public void rotateTetromino(boolean switchRotate) {
-        if (gameState == GameState.ON) {
-            currentTetromino.rotate(rotateClockwise ^ switchRotate);
+        boolean clockwise = rotateClockwise ^ switchRotate;
+
+        if (gameState == GameState.ON && currentTetromino.rotate(clockwise)) {
+            publishEvent(GameEventType.ROTATE, currentTetromino, (clockwise
+                ? Action.ROTATE_CW : Action.ROTATE_CCW).ordinal());
+            fireAction(clockwise ? Action.ROTATE_CW : Action.ROTATE_CCW);
+        }
+    }
+
+    public void perform(Action action) {
+        // Apply the action regardless of the rotation and drop settings
+        switch (action) {
+            case MOVE_LEFT:
+                moveTetrominoLeft();
+                break;
+            case MOVE_RIGHT:
+                moveTetrominoRight();
+                break;
+            case MOVE_DOWN:
+                moveTetrominoDown();
+                break;
+            case ROTATE_CW:
+                rotateTetromino(!rotateClockwise);
+                break;
+            case ROTATE_CCW:
+                rotateTetromino(rotateClockwise);
+                break;
+            case SOFT_DROP:
+                dropTetromino(!moveAfterDrop);
+                break;
+            case DROP:
+                dropTetromino(moveAfterDrop);
+                break;
+            case HOLD:
+                holdTetromino();
+                break;
+            case GRAVITY:
+                moveTetrominoDownTimer();
+                break;
         }
     }
 
@@ -225,7 +503,7 @@ public class TetrisGame {
         if (holdTetromino == null) {
             // Transfer the current tetromino to the hold grid
             currentTetromino.removeFromGrid();
-            holdTetromino = new Tetromino(currentType, holdGrid, false);
+            holdTetromino = spawn(spareTetromino, currentType, holdGrid, false);
             holdTetromino.moveDown();
 
             // End the game if next tetromino cannot spawn in the basket
@@ -234,50 +512,160 @@ public class TetrisGame {
             }
 
             // Transfer next tetromino to the basket
-            currentTetromino =
-                new Tetromino(nextTetromino.getType(), basketGrid,
-                    displayShadow);
+            currentTetromino.reset(nextTetromino.getType(), basketGrid,
+                displayShadow);
 
             // Move down once for visibility
             currentTetromino.moveDown();
 
+            if (gameState != GameState.OFF) {
+                HoldEvent.emit(currentType.name(), null);
+                publishEvent(GameEventType.HOLD, holdTetromino, 0);
+                PieceSpawnEvent.emit(currentTetromino.getType().name(),
+                    pieces);
+                publishEvent(GameEventType.SPAWN, currentTetromino, pieces);
+            }
+
             nextTetromino.removeFromGrid();
-            nextTetromino =
-                new Tetromino(typeGenerator.getNextType(), nextGrid, false);
+            nextTetromino.reset(typeRandomizer.next(), nextGrid, false);
             nextTetromino.moveDown();
         } else {
             // Remove the old hold tetromino and store its type
             holdTetromino.removeFromGrid();
             SquareType holdType = holdTetromino.getType();
 
+            // End the game if hold tetromino cannot spawn in the basket
+            if (!holdTetromino.isLegalSpawn(basketGrid)) {
+                endGame();
+            }
+
             // Transfer the current tetromino to the hold grid
             currentTetromino.removeFromGrid();
-            holdTetromino = new Tetromino(currentType, holdGrid, false);
+            holdTetromino.reset(currentType, holdGrid, false);
             holdTetromino.moveDown();
 
-            // End the game if next tetromino cannot spawn in the basket
-            if (!nextTetromino.isLegalSpawn(basketGrid)) {
-                endGame();
-            }
-
             // Transfer the hold tetromino back into the basket
-            currentTetromino =
-                new Tetromino(holdType, basketGrid, displayShadow);
+            currentTetromino.reset(holdType, basketGrid, displayShadow);
 
             // Move down once for visibility
             currentTetromino.moveDown();
+
+            if (gameState != GameState.OFF) {
+                HoldEvent.emit(currentType.name(), holdType.name());
+                publishEvent(GameEventType.HOLD, holdTetromino, 0);
+                PieceSpawnEvent.emit(holdType.name(), pieces);
+                publishEvent(GameEventType.SPAWN, currentTetromino, pieces);
+            }
         }
 
-        stepTimer.restart();
+        stepClock.restart();
+        fireAction(Action.HOLD);
+    }
+
+    private static Tetromino spawn(Tetromino tetromino, SquareType type,
+            TetrisGrid grid, boolean displayShadow) {
+        // Allocate each of the three tetrominoes once, then reset in place
+        if (tetromino == null) {
+            return new Tetromino(type, grid, displayShadow);
+        }
+
+        tetromino.reset(type, grid, displayShadow);
+
+        return tetromino;
+    }
+
+    private void saveTetromino(ByteBuffer buffer, Tetromino tetromino) {
+        buffer.put((byte)(tetromino != null ? 1 : 0));
+
+        if (tetromino != null) {
+            tetromino.save(buffer);
+        }
+    }
+
+    private Tetromino restoreTetromino(ByteBuffer buffer, Tetromino tetromino,
+            TetrisGrid grid) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+
+        // The grid is restored already, so a new tetromino must not draw
+        if (tetromino == null) {
+            tetromino = new Tetromino(SquareType.O, new TetrisGrid(
+                SMALL_GRID_SIZE, SMALL_GRID_SIZE), false);
+        }
+
+        tetromino.restore(buffer, grid);
+
+        return tetromino;
+    }
+
+    private void restoreRandomizer(ByteBuffer buffer) {
+        String randomizerName = typeRandomizer.getName();
+        int length = buffer.get();
+        boolean same = length == randomizerName.length();
+
+        // Compare the names in place, allocating only for a different one
+        for (int i = 0; same && i < length; ++i) {
+            same =
+                buffer.get(buffer.position() + i) == randomizerName.charAt(i);
+        }
+
+        if (!same) {
+            byte[] name = new byte[length];
+            buffer.get(name);
+
+            typeRandomizer =
+                TypeRandomizer.forName(new String(name,
+                    StandardCharsets.US_ASCII));
+        } else {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private void publishMove(Action action) {
+        publishEvent(GameEventType.MOVE, currentTetromino, action.ordinal());
+    }
+
+    private void publishEvent(GameEventType type, Tetromino tetromino,
+            int value) {
+        if (events == null) {
+            return;
+        }
+
+        if (tetromino == null) {
+            events.publish(type, null, 0, 0, 0, value, getTime());
+        } else {
+            events.publish(type, tetromino.getType(), tetromino.getCol(),
+                tetromino.getRow(), tetromino.getRotation(), value, getTime());
+        }
+    }
+
+    private void fireAction(Action action) {
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).actionPerformed(this, action);
+        }
     }
 
     private void nextTetromino() {
+        // Only time the lock when someone is watching
+        long start = monitor != null ? System.nanoTime() : 0;
+        int oldLines = lines;
+
+        currentTetromino.lock();
+        ++pieces;
+        PieceLockEvent.emit(currentTetromino.getType().name(),
+            currentTetromino.getCol(), currentTetromino.getRow(),
+            currentTetromino.getRotation(), pieces);
+        publishEvent(GameEventType.LOCK, currentTetromino, pieces);
+
         // End the game if the current tetromino locked too high
         if (currentTetromino.isIllegalLock()) {
             endGame();
         }
 
+        long removeStart = monitor != null ? System.nanoTime() : 0;
         removeLines();
+        long removeEnd = monitor != null ? System.nanoTime() : 0;
         holdUsed = false;
 
         // End the game if next tetromino cannot spawn in the basket
@@ -285,60 +673,46 @@ public class TetrisGame {
             endGame();
         }
 
-        // Increase level and set timer's delay accordingly if necessary
+        // Increase level and set clock's delay accordingly if necessary
         if (lines / LINES_PER_LEVEL == (level - initialLevel + 1)) {
             if (++level <= MAX_LEVEL) {
-                stepTimer.setInitialDelay(stepTimer.getInitialDelay()
-                    - MILLIS_PER_LEVEL);
-                stepTimer.setDelay(stepTimer.getInitialDelay());
+                stepClock.setDelay(stepClock.getDelay() - MILLIS_PER_LEVEL);
+            }
+
+            // The end of a game is always the last event reported
+            if (gameState != GameState.OFF) {
+                LevelUpEvent.emit(level, stepClock.getDelay());
+                publishEvent(GameEventType.LEVEL_UP, null, level);
             }
         }
 
         // Transfer next tetromino to current tetromino
-        currentTetromino =
-            new Tetromino(nextTetromino.getType(), basketGrid, displayShadow);
+        currentTetromino.reset(nextTetromino.getType(), basketGrid,
+            displayShadow);
 
         // Move down once for visibility
         currentTetromino.moveDown();
 
+        if (gameState != GameState.OFF) {
+            PieceSpawnEvent.emit(currentTetromino.getType().name(), pieces);
+            publishEvent(GameEventType.SPAWN, currentTetromino, pieces);
+        }
+
         nextTetromino.removeFromGrid();
-        nextTetromino =
-            new Tetromino(typeGenerator.getNextType(), nextGrid, false);
+        nextTetromino.reset(typeRandomizer.next(), nextGrid, false);
         nextTetromino.moveDown();
 
-        stepTimer.restart();
+        stepClock.restart();
+
+        if (monitor != null) {
+            monitor.pieceLocked(this, lines - oldLines, System.nanoTime()
+                - start, removeEnd - removeStart);
+        }
     }
 
     private void removeLines() {
-        int linesCleared = 0;
-
-        for (int row = basketGrid.getNumRows() - 1; row >= 0;) {
-            boolean lineFull = true;
-
-            // Continue to next iteration if any square is empty
-            for (int col = 0; col < basketGrid.getNumCols(); ++col) {
-                if (!basketGrid.isOccupied(col, row)) {
-                    lineFull = false;
-                    break;
-                }
-            }
-
-            if (lineFull) {
-                linesCleared++;
-
-                // Shift basket down one row to clear the filled row
-                for (int j = 0; j < basketGrid.getNumCols(); ++j) {
-                    for (int i = row; i < basketGrid.getNumRows() - 2; ++i) {
-                        basketGrid.set(j, i, basketGrid.get(j, i + 1));
-                    }
-
-                    basketGrid.set(j, basketGrid.getNumRows() - 1,
-                        SquareType.EMPTY);
-                }
-            } else {
-                --row;
-            }
-        }
+        // Shift the basket down over all of the filled rows at once
+        int linesCleared = basketGrid.clearFullRows();
 
         if (linesCleared > 0) {
             // Add the number of lines removed this time to the total
@@ -348,39 +722,12 @@ public class TetrisGame {
             score +=
                 (linesCleared == 1 ? 40 : linesCleared == 2 ? 100
                     : linesCleared == 3 ? 300 : 1200) * level;
-        }
-    }
-
-    private class TypeGenerator {
-        private final SquareType[] SQUARE_TYPES;
-
-        private ArrayList<SquareType> typeList;
-
-        private TypeGenerator() {
-            SQUARE_TYPES =
-                new SquareType[] {SquareType.I, SquareType.J, SquareType.L,
-                    SquareType.O, SquareType.S, SquareType.T, SquareType.Z};
-
-            typeList = new ArrayList<SquareType>(SQUARE_TYPES.length);
-        }
-
-        private SquareType getNextType() {
-            // Refill the list if necessary
-            if (typeList.isEmpty()) {
-                for (SquareType type : SQUARE_TYPES) {
-                    typeList.add(type);
-                }
-            }
-
-            // Remove and return a random member of the list
-            return typeList.remove((int)(typeList.size() * Math.random()));
-        }
-
-        private void reset() {
-            typeList.clear();
 
-            for (SquareType type : SQUARE_TYPES) {
-                typeList.add(type);
+            // Lines still count after an illegal lock, but are not reported
+            // after the end of the game
+            if (gameState != GameState.OFF) {
+                LineClearEvent.emit(linesCleared, lines, score);
+                publishEvent(GameEventType.LINES_CLEARED, null, linesCleared);
             }
         }
     }
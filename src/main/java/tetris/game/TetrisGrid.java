@@ -1,5 +1,6 @@
 package tetris.game;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 public class TetrisGrid {
@@ -7,37 +8,426 @@ public class TetrisGrid {
         I, J, L, O, S, T, Z, SHADOW, EMPTY
     }
 
-    private SquareType[][] grid;
+    // Tetrominoes appear at most this far above the highest column
+    public static final int SPAWN_DISTANCE = 64;
+
+    private static final SquareType[] SQUARE_TYPES = SquareType.values();
+
+    // Types are stored so that zero, the initial value, is EMPTY
+    private static final int EMPTY_CODE = SquareType.EMPTY.ordinal();
+
+    private final int numCols, numRows, wordsPerRow, typeWordsPerRow;
+
+    private final long lastWordMask;
+
+    // Tests whole rows of occupancy words at once
+    private RowScanner rowScanner;
+
+    // Type of every square (including floating ones), four bits each,
+    // indexed [row][word], or null for rows that were never used
+    private long[][] squares;
+
+    // Bitmask of the occupied squares of each row, indexed [row][word],
+    // allocated along with the types
+    private long[][] occupancy;
+
+    // One above the highest allocated row
+    private int usedRows;
+
+    // One above the highest occupied square of each column
+    private int[] heights;
+
+    // Highest of the heights, or -1 until it is searched for again
+    private int maxHeight;
+
+    private int numOccupied;
+
+    // Whether any square's type changed since clearChanges()
+    private boolean changed;
 
     public TetrisGrid(int cols, int rows) {
-        grid = new SquareType[cols][rows];
+        numCols = cols;
+        numRows = rows;
+        wordsPerRow = (cols + Long.SIZE - 1) / Long.SIZE;
+        typeWordsPerRow = (cols + 15) / 16;
+
+        // Only the low bits of the last word of each row are in use
+        lastWordMask =
+            cols % Long.SIZE == 0 ? -1L : (1L << cols % Long.SIZE) - 1;
+
+        // Rows are allocated once first used, so tall grids cost little
+        // above their highest squares
+        squares = new long[rows][];
+        occupancy = new long[rows][];
+        heights = new int[cols];
+        rowScanner = RowScanner.forWords(wordsPerRow);
         clear();
     }
 
     public int getNumCols() {
-        return grid.length;
+        return numCols;
     }
 
     public int getNumRows() {
-        return grid[0].length;
+        return numRows;
+    }
+
+    public int getColumnHeight(int col) {
+        return heights[col];
+    }
+
+    public RowScanner getRowScanner() {
+        return rowScanner;
+    }
+
+    public void setRowScanner(RowScanner rowScanner) {
+        this.rowScanner = rowScanner;
+    }
+
+    public int getMaxHeight() {
+        if (maxHeight < 0) {
+            maxHeight = 0;
+
+            for (int height : heights) {
+                maxHeight = Math.max(maxHeight, height);
+            }
+        }
+
+        return maxHeight;
+    }
+
+    public int getSpawnRow() {
+        // The top of the grid, unless it is far above the highest column
+        return Math.min(numRows - 2, getMaxHeight() + SPAWN_DISTANCE);
+    }
+
+    public int getNumOccupied() {
+        return numOccupied;
+    }
+
+    public boolean isChanged() {
+        return changed;
+    }
+
+    public void clearChanges() {
+        changed = false;
     }
 
     public SquareType get(int col, int row) {
-        return grid[col][row];
+        long[] words = squares[row];
+
+        if (words == null) {
+            return SquareType.EMPTY;
+        }
+
+        return SQUARE_TYPES[getCode(words, col) ^ EMPTY_CODE];
     }
 
     public void set(int col, int row, SquareType type) {
-        grid[col][row] = type;
+        setType(col, row, type);
+
+        boolean wasOccupied = isOccupied(col, row);
+
+        if (type != SquareType.EMPTY && type != SquareType.SHADOW) {
+            occupancy[row][col >>> 6] |= 1L << col;
+            heights[col] = Math.max(heights[col], row + 1);
+
+            if (maxHeight >= 0) {
+                maxHeight = Math.max(maxHeight, row + 1);
+            }
+
+            if (!wasOccupied) {
+                ++numOccupied;
+            }
+        } else if (wasOccupied) {
+            occupancy[row][col >>> 6] &= ~(1L << col);
+            --numOccupied;
+
+            // Lower the column if its highest square was emptied, and search
+            // for the highest column again if it was this one
+            if (heights[col] == row + 1) {
+                if (maxHeight == row + 1) {
+                    maxHeight = -1;
+                }
+
+                updateColumnHeight(col, row);
+            }
+        }
+    }
+
+    public void setFloating(int col, int row, SquareType type) {
+        // Change only the displayed type, leaving the occupancy untouched
+        setType(col, row, type);
     }
 
     public boolean isOccupied(int col, int row) {
-        return grid[col][row] != SquareType.EMPTY
-            && grid[col][row] != SquareType.SHADOW;
+        long[] words = occupancy[row];
+
+        return words != null && (words[col >>> 6] & 1L << col) != 0;
+    }
+
+    public boolean isFree(int col, int row) {
+        return col >= 0 && col < numCols && row >= 0 && row < numRows
+            && !isOccupied(col, row);
+    }
+
+    public boolean isRowFull(int row) {
+        long[] words = occupancy[row];
+
+        return words != null && rowScanner.isFull(words, lastWordMask);
+    }
+
+    public boolean isRowEmpty(int row) {
+        long[] words = occupancy[row];
+
+        return words == null || rowScanner.isEmpty(words);
+    }
+
+    public int clearFullRows() {
+        int keptRows = 0, top = getMaxHeight();
+
+        // Swap each row that is not full down past the full ones, which all
+        // lie below the highest column, up to the last row in use
+        for (int row = 0; row < usedRows; ++row) {
+            if (row >= top || !isRowFull(row)) {
+                if (row != keptRows) {
+                    long[] rowSquares = squares[keptRows];
+                    squares[keptRows] = squares[row];
+                    squares[row] = rowSquares;
+
+                    long[] rowWords = occupancy[keptRows];
+                    occupancy[keptRows] = occupancy[row];
+                    occupancy[row] = rowWords;
+                }
+
+                ++keptRows;
+            }
+        }
+
+        int clearedRows = usedRows - keptRows;
+
+        if (clearedRows > 0) {
+            numOccupied -= clearedRows * numCols;
+            maxHeight = 0;
+            changed = true;
+
+            // Reuse the full rows as the new empty rows at the top
+            for (int row = keptRows; row < usedRows; ++row) {
+                Arrays.fill(squares[row], 0);
+                Arrays.fill(occupancy[row], 0);
+            }
+
+            // Every column reached above all of the cleared rows
+            for (int col = 0; col < numCols; ++col) {
+                updateColumnHeight(col, heights[col] - clearedRows);
+                maxHeight = Math.max(maxHeight, heights[col]);
+            }
+        }
+
+        return clearedRows;
     }
 
     public void clear() {
-        for (SquareType[] col : grid) {
-            Arrays.fill(col, SquareType.EMPTY);
+        for (int row = 0; row < usedRows; ++row) {
+            if (squares[row] != null) {
+                Arrays.fill(squares[row], 0);
+                Arrays.fill(occupancy[row], 0);
+            }
+        }
+
+        Arrays.fill(heights, 0);
+        maxHeight = 0;
+        numOccupied = 0;
+        changed = true;
+    }
+
+    public void copyFrom(TetrisGrid other) {
+        if (other.numCols != numCols || other.numRows != numRows) {
+            throw new IllegalArgumentException("Grid sizes differ");
+        }
+
+        int rows = Math.max(usedRows, other.usedRows);
+
+        for (int row = 0; row < rows; ++row) {
+            if (other.squares[row] != null) {
+                if (squares[row] == null) {
+                    allocateRow(row);
+                }
+
+                System.arraycopy(other.squares[row], 0, squares[row], 0,
+                    typeWordsPerRow);
+                System.arraycopy(other.occupancy[row], 0, occupancy[row], 0,
+                    wordsPerRow);
+            } else if (squares[row] != null) {
+                Arrays.fill(squares[row], 0);
+                Arrays.fill(occupancy[row], 0);
+            }
+        }
+
+        System.arraycopy(other.heights, 0, heights, 0, numCols);
+        maxHeight = other.maxHeight;
+        numOccupied = other.numOccupied;
+        changed = true;
+    }
+
+    public void copyWindow(TetrisGrid other, int col, int row) {
+        if (col < 0 || row < 0 || col + numCols > other.numCols
+            || row + numRows > other.numRows) {
+            throw new IllegalArgumentException("Window outside the grid");
+        }
+
+        clear();
+
+        // Copy the window as if it were a whole grid of its own
+        int rows = Math.min(numRows, other.usedRows - row);
+
+        for (int r = 0; r < rows; ++r) {
+            long[] otherSquares = other.squares[row + r];
+            long[] otherWords = other.occupancy[row + r];
+
+            if (otherSquares == null) {
+                continue;
+            }
+
+            long[] rowSquares =
+                squares[r] != null ? squares[r] : allocateRow(r);
+            long[] rowWords = occupancy[r];
+
+            for (int c = 0; c < numCols; ++c) {
+                rowSquares[c >>> 4] |=
+                    (long)getCode(otherSquares, col + c) << (c << 2);
+
+                if ((otherWords[col + c >>> 6] & 1L << col + c) != 0) {
+                    rowWords[c >>> 6] |= 1L << c;
+                    heights[c] = r + 1;
+                    ++numOccupied;
+                }
+            }
+        }
+
+        maxHeight = -1;
+    }
+
+    public int getSnapshotSize() {
+        return 16 + numRows * (typeWordsPerRow + wordsPerRow) * 8 + numCols
+            * 4;
+    }
+
+    public void save(ByteBuffer buffer) {
+        buffer.putInt(numCols).putInt(numRows).putInt(usedRows);
+
+        // Floating squares are only in the types, so save both planes, of
+        // the rows in use only
+        for (int row = 0; row < usedRows; ++row) {
+            for (int word = 0; word < typeWordsPerRow; ++word) {
+                buffer.putLong(squares[row] != null ? squares[row][word] : 0);
+            }
+
+            for (int word = 0; word < wordsPerRow; ++word) {
+                buffer.putLong(occupancy[row] != null ? occupancy[row][word]
+                    : 0);
+            }
+        }
+
+        for (int col = 0; col < numCols; ++col) {
+            buffer.putInt(heights[col]);
+        }
+
+        buffer.putInt(numOccupied);
+    }
+
+    public void restore(ByteBuffer buffer) {
+        if (buffer.getInt() != numCols || buffer.getInt() != numRows) {
+            throw new IllegalArgumentException("Grid sizes differ");
+        }
+
+        int savedRows = buffer.getInt();
+
+        // Empty the rows in use beyond the saved ones
+        clear();
+
+        for (int row = 0; row < savedRows; ++row) {
+            if (squares[row] == null) {
+                allocateRow(row);
+            }
+
+            for (int word = 0; word < typeWordsPerRow; ++word) {
+                squares[row][word] = buffer.getLong();
+            }
+
+            for (int word = 0; word < wordsPerRow; ++word) {
+                occupancy[row][word] = buffer.getLong();
+            }
+        }
+
+        for (int col = 0; col < numCols; ++col) {
+            heights[col] = buffer.getInt();
+        }
+
+        maxHeight = -1;
+        numOccupied = buffer.getInt();
+    }
+
+    public long hashOccupancy() {
+        int top = getMaxHeight();
+
+        // Rows above the highest column are empty and need not be mixed in
+        long hash = top;
+
+        for (int row = 0; row < top; ++row) {
+            long[] words = occupancy[row];
+
+            for (int word = 0; word < wordsPerRow; ++word) {
+                hash = (hash ^ (words != null ? words[word] : 0))
+                    * 0x9E3779B97F4A7C15L;
+                hash ^= hash >>> 29;
+            }
+        }
+
+        return hash;
+    }
+
+    private void setType(int col, int row, SquareType type) {
+        int code = type.ordinal() ^ EMPTY_CODE;
+        long[] words = squares[row];
+
+        // Emptying a row that was never used changes nothing
+        if (words == null) {
+            if (code == 0) {
+                return;
+            }
+
+            words = allocateRow(row);
         }
+
+        int oldCode = getCode(words, col);
+
+        // Flag actual changes only
+        if (oldCode != code) {
+            changed = true;
+        }
+
+        words[col >>> 4] ^= (long)(oldCode ^ code) << (col << 2);
+    }
+
+    private long[] allocateRow(int row) {
+        squares[row] = new long[typeWordsPerRow];
+        occupancy[row] = new long[wordsPerRow];
+        usedRows = Math.max(usedRows, row + 1);
+
+        return squares[row];
+    }
+
+    private static int getCode(long[] words, int col) {
+        return (int)(words[col >>> 4] >>> (col << 2)) & 15;
+    }
+
+    private void updateColumnHeight(int col, int height) {
+        // Search down from the given height for the highest occupied square
+        while (height > 0 && !isOccupied(col, height - 1)) {
+            --height;
+        }
+
+        heights[col] = height;
     }
 }
@@ -0,0 +1,7 @@
+package tetris.game;
+
+public interface TetrisListener {
+    void gameStarted(TetrisGame game);
+
+    void actionPerformed(TetrisGame game, Action action);
+}
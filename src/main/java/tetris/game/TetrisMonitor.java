@@ -0,0 +1,8 @@
+package tetris.game;
+
+public interface TetrisMonitor {
+    // Called once each piece has locked, with the nanoseconds spent on it,
+    // of which removeNanos were spent removing lines
+    void pieceLocked(TetrisGame game, int linesCleared, long lockNanos,
+            long removeNanos);
+}
@@ -0,0 +1,6 @@
+package tetris.game;
+
+public interface TetrisPlayer {
+    // Called before every step; may perform any number of moves
+    void play(TetrisGame game);
+}
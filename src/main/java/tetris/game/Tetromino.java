@@ -1,18 +1,48 @@
 package tetris.game;
 
-import java.util.EnumMap;
+import java.nio.ByteBuffer;
 
 import tetris.game.TetrisGrid.SquareType;
 
 public class Tetromino {
-    private static enum RotationState {
-        UP, RIGHT, DOWN, LEFT
-    }
-
-    private final static EnumMap<SquareType, int[][]> DEFAULT_REL_LOCS;
-
-    private final static EnumMap<RotationState, int[][]> I_ROTATION_REL_LOCS,
-            ROTATION_REL_LOCS;
+    // Rotation states are UP, RIGHT, DOWN, LEFT, in clockwise order
+    static final int NUM_ROTATIONS = 4, NUM_SQUARES = 4, NUM_KICKS = 5;
+
+    static final int SNAPSHOT_SIZE = 15;
+
+    private static final SquareType[] SQUARE_TYPES = SquareType.values();
+
+    private static final int[][][] DEFAULT_REL_LOCS = new int[][][] {
+        { {0, 0}, {-1, 0}, {1, 0}, {2, 0}}, // I
+        { {0, 0}, {-1, 1}, {-1, 0}, {1, 0}}, // J
+        { {0, 0}, {-1, 0}, {1, 1}, {1, 0}}, // L
+        { {0, 0}, {0, 1}, {1, 1}, {1, 0}}, // O
+        { {0, 0}, {-1, 0}, {0, 1}, {1, 1}}, // S
+        { {0, 0}, {-1, 0}, {0, 1}, {1, 0}}, // T
+        { {0, 0}, {-1, 1}, {0, 1}, {1, 0}} // Z
+    };
+
+    // Relative locations for kicks and twists, per rotation state
+    private static final int[][][] ROTATION_REL_LOCS = new int[][][] {
+        { {0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}},
+        { {0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},
+        { {0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},
+        { {0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}}
+    };
+
+    // Relative locations for I for kicks and twists, per rotation state
+    private static final int[][][] I_ROTATION_REL_LOCS = new int[][][] {
+        { {0, 0}, {-2, 0}, {1, 0}, {-2, -1}, {1, 2}},
+        { {0, 0}, {-1, 0}, {2, 0}, {-1, 2}, {2, -1}},
+        { {0, 0}, {2, 0}, {-1, 0}, {2, 1}, {-1, -2}},
+        { {0, 0}, {1, 0}, {-2, 0}, {1, -2}, {-2, 1}}
+    };
+
+    // Square offsets, indexed by getShape(type, rotation) + square
+    static final int[] SQUARE_COLS, SQUARE_ROWS;
+
+    // Total center offsets of each kick, indexed by getKick(shape, cw) + kick
+    static final int[] KICK_COLS, KICK_ROWS;
 
     private TetrisGrid grid;
 
@@ -20,78 +50,140 @@ public class Tetromino {
 
     private boolean displayShadow;
 
-    private int[][] relLocs;
+    private int row, col, rotation, shape, shadowDistance;
+
+    static {
+        int numShapes = DEFAULT_REL_LOCS.length * NUM_ROTATIONS;
+
+        SQUARE_COLS = new int[numShapes * NUM_SQUARES];
+        SQUARE_ROWS = new int[numShapes * NUM_SQUARES];
+        KICK_COLS = new int[numShapes * 2 * NUM_KICKS];
+        KICK_ROWS = new int[numShapes * 2 * NUM_KICKS];
+
+        for (int t = 0; t < DEFAULT_REL_LOCS.length; ++t) {
+            // Rotate the default locations clockwise for each state
+            for (int i = 0; i < NUM_SQUARES; ++i) {
+                int col = DEFAULT_REL_LOCS[t][i][0];
+                int row = DEFAULT_REL_LOCS[t][i][1];
+
+                for (int r = 0; r < NUM_ROTATIONS; ++r) {
+                    SQUARE_COLS[(t * NUM_ROTATIONS + r) * NUM_SQUARES + i] =
+                        col;
+                    SQUARE_ROWS[(t * NUM_ROTATIONS + r) * NUM_SQUARES + i] =
+                        row;
+
+                    int swap = col;
+                    col = row;
+                    row = -swap;
+                }
+            }
 
-    private int row, col, shadowDistance;
+            int[][][] kicks =
+                t == SquareType.I.ordinal() ? I_ROTATION_REL_LOCS
+                    : ROTATION_REL_LOCS;
 
-    private RotationState rotationState;
+            for (int r = 0; r < NUM_ROTATIONS; ++r) {
+                int shape = (t * NUM_ROTATIONS + r) * NUM_SQUARES;
+                int cw = (t * NUM_ROTATIONS + r) * 2 * NUM_KICKS;
+                int ccw = cw + NUM_KICKS;
 
-    static {
-        // Initialize the relative locations in the default rotation
-        DEFAULT_REL_LOCS = new EnumMap<SquareType, int[][]>(SquareType.class);
-        DEFAULT_REL_LOCS.put(SquareType.I, new int[][] { {0, 0}, {-1, 0},
-            {1, 0}, {2, 0}});
-        DEFAULT_REL_LOCS.put(SquareType.J, new int[][] { {0, 0}, {-1, 1},
-            {-1, 0}, {1, 0}});
-        DEFAULT_REL_LOCS.put(SquareType.L, new int[][] { {0, 0}, {-1, 0},
-            {1, 1}, {1, 0}});
-        DEFAULT_REL_LOCS.put(SquareType.O, new int[][] { {0, 0}, {0, 1},
-            {1, 1}, {1, 0}});
-        DEFAULT_REL_LOCS.put(SquareType.S, new int[][] { {0, 0}, {-1, 0},
-            {0, 1}, {1, 1}});
-        DEFAULT_REL_LOCS.put(SquareType.T, new int[][] { {0, 0}, {-1, 0},
-            {0, 1}, {1, 0}});
-        DEFAULT_REL_LOCS.put(SquareType.Z, new int[][] { {0, 0}, {-1, 1},
-            {0, 1}, {1, 0}});
-
-        // Initialize the relative locations for kicks and twists
-        ROTATION_REL_LOCS =
-            new EnumMap<RotationState, int[][]>(RotationState.class);
-        ROTATION_REL_LOCS.put(RotationState.UP, new int[][] { {0, 0}, {-1, 0},
-            {-1, 1}, {0, -2}, {-1, -2}});
-        ROTATION_REL_LOCS.put(RotationState.RIGHT, new int[][] { {0, 0},
-            {1, 0}, {1, -1}, {0, 2}, {1, 2}});
-        ROTATION_REL_LOCS.put(RotationState.DOWN, new int[][] { {0, 0}, {1, 0},
-            {1, 1}, {0, -2}, {1, -2}});
-        ROTATION_REL_LOCS.put(RotationState.LEFT, new int[][] { {0, 0},
-            {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}});
-
-        // Initialize the relative locations for I for kicks and twists
-        I_ROTATION_REL_LOCS =
-            new EnumMap<RotationState, int[][]>(RotationState.class);
-        I_ROTATION_REL_LOCS.put(RotationState.UP, new int[][] { {0, 0},
-            {-2, 0}, {1, 0}, {-2, -1}, {1, 2}});
-        I_ROTATION_REL_LOCS.put(RotationState.RIGHT, new int[][] { {0, 0},
-            {-1, 0}, {2, 0}, {-1, 2}, {2, -1}});
-        I_ROTATION_REL_LOCS.put(RotationState.DOWN, new int[][] { {0, 0},
-            {2, 0}, {-1, 0}, {2, 1}, {-1, -2}});
-        I_ROTATION_REL_LOCS.put(RotationState.LEFT, new int[][] { {0, 0},
-            {1, 0}, {-2, 0}, {1, -2}, {-2, 1}});
+                // Move the I tetromino out if rotating clockwise
+                int cwCol = 0, cwRow = 0;
+
+                if (t == SquareType.I.ordinal()) {
+                    cwCol = SQUARE_COLS[shape + 2];
+                    cwRow = SQUARE_ROWS[shape + 2];
+                }
+
+                // Move the I tetromino in if rotating counterclockwise
+                int rTo = (r + NUM_ROTATIONS - 1) % NUM_ROTATIONS;
+                int shapeTo = (t * NUM_ROTATIONS + rTo) * NUM_SQUARES;
+                int ccwCol = 0, ccwRow = 0;
+
+                if (t == SquareType.I.ordinal()) {
+                    ccwCol = -SQUARE_COLS[shapeTo + 2];
+                    ccwRow = -SQUARE_ROWS[shapeTo + 2];
+                }
+
+                // Counterclockwise kicks are the reverse of clockwise ones
+                for (int k = 0; k < NUM_KICKS; ++k) {
+                    KICK_COLS[cw + k] = cwCol + kicks[r][k][0];
+                    KICK_ROWS[cw + k] = cwRow + kicks[r][k][1];
+                    KICK_COLS[ccw + k] = ccwCol - kicks[rTo][k][0];
+                    KICK_ROWS[ccw + k] = ccwRow - kicks[rTo][k][1];
+                }
+            }
+        }
     }
 
     public Tetromino(SquareType type, TetrisGrid grid, boolean displayShadow) {
-        this.grid = grid;
-        this.type = type;
-        this.displayShadow = displayShadow;
+        reset(type, grid, displayShadow);
+    }
 
-        relLocs =
-            new int[][] {DEFAULT_REL_LOCS.get(this.type)[0].clone(),
-                DEFAULT_REL_LOCS.get(this.type)[1].clone(),
-                DEFAULT_REL_LOCS.get(this.type)[2].clone(),
-                DEFAULT_REL_LOCS.get(this.type)[3].clone()};
+    static int getShape(SquareType type, int rotation) {
+        return (type.ordinal() * NUM_ROTATIONS + rotation) * NUM_SQUARES;
+    }
 
-        row = this.grid.getNumRows() - 2;
-        col = (this.grid.getNumCols() - 1) / 2;
-        rotationState = RotationState.UP;
-        shadowDistance = 0;
+    static int getKick(int shape, boolean rotateClockwise) {
+        return (shape / NUM_SQUARES * 2 + (rotateClockwise ? 0 : 1))
+            * NUM_KICKS;
+    }
 
-        updateGrid();
+    static boolean fits(TetrisGrid grid, int shape, int col, int row) {
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            if (!grid.isFree(SQUARE_COLS[i] + col, SQUARE_ROWS[i] + row)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static int getDropDistance(TetrisGrid grid, int shape, int col, int row) {
+        int distance = row;
+
+        // Each square can fall to the surface of its column
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            int gap =
+                SQUARE_ROWS[i] + row
+                    - grid.getColumnHeight(SQUARE_COLS[i] + col);
+
+            if (gap < 0) {
+                distance = -1;
+                break;
+            }
+
+            distance = Math.min(distance, gap);
+        }
+
+        // Step down one row at a time if tucked under an overhang
+        if (distance < 0) {
+            distance = 0;
+
+            while (fits(grid, shape, col, row - distance - 1)) {
+                ++distance;
+            }
+        }
+
+        return distance;
     }
 
     public SquareType getType() {
         return type;
     }
 
+    public int getCol() {
+        return col;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
     public void setDisplayShadow(boolean displayShadow) {
         this.displayShadow = displayShadow;
 
@@ -104,45 +196,27 @@ public class Tetromino {
     }
 
     public boolean isIllegalLock() {
-        boolean isCompletelyAbove = true;
-
         // Override if any individual square is below the threshold
-        for (int[] relLoc : relLocs) {
-            if (relLoc[1] + row < grid.getNumRows() - 2) {
-                isCompletelyAbove = false;
-                break;
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            if (SQUARE_ROWS[i] + row < grid.getNumRows() - 2) {
+                return false;
             }
         }
 
-        return isCompletelyAbove;
+        return true;
     }
 
     public boolean isLegalSpawn(TetrisGrid destinationGrid) {
-        boolean canSpawn = true;
-
-        int destinationRow = destinationGrid.getNumRows() - 2, destinationCol =
+        int destinationRow = destinationGrid.getSpawnRow(), destinationCol =
             (destinationGrid.getNumCols() - 1) / 2;
 
-        // Override if any individual square cannot spawn
-        for (int[] relLoc : relLocs) {
-            if (destinationGrid.isOccupied(relLoc[0] + destinationCol,
-                relLoc[1] + destinationRow)) {
-                canSpawn = false;
-                break;
-            }
-        }
-
-        return canSpawn;
+        return fits(destinationGrid, shape, destinationCol, destinationRow);
     }
 
     public boolean moveLeft() {
         // Return false if the tetromino cannot move left
-        for (int[] relLoc : relLocs) {
-            if (relLoc[0] + col <= 0
-                || grid.isOccupied(relLoc[0] + col - 1, relLoc[1] + row)
-                && !isSelfOccupied(relLoc[0] + col - 1, relLoc[1] + row)) {
-                return false;
-            }
+        if (!fits(grid, shape, col - 1, row)) {
+            return false;
         }
 
         // Empty the old locations (including shadow)
@@ -159,12 +233,8 @@ public class Tetromino {
 
     public boolean moveRight() {
         // Return false if the tetromino cannot move right
-        for (int[] relLoc : relLocs) {
-            if (relLoc[0] + col >= grid.getNumCols() - 1
-                || grid.isOccupied(relLoc[0] + col + 1, relLoc[1] + row)
-                && !isSelfOccupied(relLoc[0] + col + 1, relLoc[1] + row)) {
-                return false;
-            }
+        if (!fits(grid, shape, col + 1, row)) {
+            return false;
         }
 
         // Empty the old locations (including shadow)
@@ -181,12 +251,8 @@ public class Tetromino {
 
     public boolean moveDown() {
         // Return false if the tetromino cannot move down
-        for (int[] relLoc : relLocs) {
-            if (relLoc[1] + row <= 0
-                || grid.isOccupied(relLoc[0] + col, relLoc[1] + row - 1)
-                && !isSelfOccupied(relLoc[0] + col, relLoc[1] + row - 1)) {
-                return false;
-            }
+        if (!fits(grid, shape, col, row - 1)) {
+            return false;
         }
 
         // Empty the old locations (including shadow)
@@ -202,10 +268,17 @@ public class Tetromino {
     }
 
     public int drop() {
-        int rowsDropped = 0;
+        int rowsDropped = getDropDistance(grid, shape, col, row);
+
+        if (rowsDropped > 0) {
+            // Empty the old locations (including shadow)
+            removeFromGrid();
 
-        while (moveDown()) {
-            ++rowsDropped;
+            // Move the tetromino straight to the bottom
+            row -= rowsDropped;
+
+            // Update the grid
+            updateGrid();
         }
 
         return rowsDropped;
@@ -217,125 +290,84 @@ public class Tetromino {
             return false;
         }
 
-        // Determine the destination rotation
-        RotationState stateRotatingTo =
-            rotateClockwise ? getNextStateCW(rotationState)
-                : getNextStateCCW(rotationState);
-
-        // Array of default relative locations for rotation
-        int[][] relLocsTo =
-            new int[][] {relLocs[0].clone(), relLocs[1].clone(),
-                relLocs[2].clone(), relLocs[3].clone()};
+        // Determine the destination rotation and its squares
+        int rotationTo =
+            (rotation + (rotateClockwise ? 1 : NUM_ROTATIONS - 1))
+                % NUM_ROTATIONS;
+        int shapeTo = getShape(type, rotationTo);
 
-        // Adjust center for type I tetromino
-        int defaultColTo = col, defaultRowTo = row;
+        // Iterate over the kick states until one fits
+        int kick = getKick(shape, rotateClockwise);
 
-        // Move the I tetromino out if rotating clockwise
-        if (type == SquareType.I && rotateClockwise) {
-            defaultColTo += relLocsTo[2][0];
-            defaultRowTo += relLocsTo[2][1];
-        }
-
-        // Flip the pairs of coordinates over the y = x line
-        for (int[] relLoc : relLocsTo) {
-            int col = relLoc[0];
-            relLoc[0] = relLoc[1];
-            relLoc[1] = col;
-        }
+        for (int i = kick; i < kick + NUM_KICKS; ++i) {
+            int colTo = col + KICK_COLS[i], rowTo = row + KICK_ROWS[i];
 
-        // Negate the row or column depending on rotation setting
-        if (rotateClockwise) {
-            for (int[] relLoc : relLocsTo) {
-                relLoc[1] = -relLoc[1];
-            }
-        } else {
-            for (int[] relLoc : relLocsTo) {
-                relLoc[0] = -relLoc[0];
-            }
-        }
+            if (fits(grid, shapeTo, colTo, rowTo)) {
+                // Empty the old locations (including shadow)
+                removeFromGrid();
 
-        // Move the I tetromino in if rotating counterclockwise
-        if (type == SquareType.I && !rotateClockwise) {
-            defaultColTo -= relLocsTo[2][0];
-            defaultRowTo -= relLocsTo[2][1];
-        }
+                // Update the new row, column, and rotation
+                col = colTo;
+                row = rowTo;
+                rotation = rotationTo;
+                shape = shapeTo;
 
-        // Adjustments for kick states
-        int[][] relLocsToAdjustment =
-            rotateClockwise ? relLocsToAdjustment =
-                type == SquareType.I ? I_ROTATION_REL_LOCS.get(rotationState)
-                    : ROTATION_REL_LOCS.get(rotationState)
-                : type == SquareType.I ? I_ROTATION_REL_LOCS
-                    .get(stateRotatingTo) : ROTATION_REL_LOCS
-                    .get(stateRotatingTo);
-
-        // Actual central column and row for rotation
-        int colTo = defaultColTo, rowTo = defaultRowTo;
-
-        // Control of inner loop
-        boolean canRotate = false;
-
-        // Iterate over the kick states
-        for (int i = 0, j; i < relLocsToAdjustment.length; ++i) {
-            canRotate = true;
-
-            for (j = 0; j < relLocsTo.length; ++j) {
-                colTo =
-                    defaultColTo
-                        + (rotateClockwise ? relLocsToAdjustment[i][0]
-                            : -relLocsToAdjustment[i][0]);
-                rowTo =
-                    defaultRowTo
-                        + (rotateClockwise ? relLocsToAdjustment[i][1]
-                            : -relLocsToAdjustment[i][1]);
-            }
+                // Update the grid
+                updateGrid();
 
-            // Check whether the tetromino can be rotated
-            for (int[] relLoc : relLocsTo) {
-                if (relLoc[0] + colTo < 0
-                    || relLoc[0] + colTo > grid.getNumCols() - 1
-                    || relLoc[1] + rowTo < 0
-                    || relLoc[1] + rowTo > grid.getNumRows() - 1
-                    || grid.isOccupied(relLoc[0] + colTo, relLoc[1] + rowTo)
-                    && !isSelfOccupied(relLoc[0] + colTo, relLoc[1] + rowTo)) {
-                    canRotate = false;
-                    break;
-                }
-            }
-
-            if (canRotate) {
-                break;
+                return true;
             }
         }
 
         // Return false if rotation is impossible
-        if (!canRotate) {
-            return false;
-        }
+        return false;
+    }
 
-        // Empty the old locations (including shadow)
-        removeFromGrid();
+    void save(ByteBuffer buffer) {
+        buffer.put((byte)type.ordinal()).put((byte)rotation);
+        buffer.putInt(col).putInt(row).putInt(shadowDistance);
+        buffer.put((byte)(displayShadow ? 1 : 0));
+    }
 
-        // Update the current relative locations
-        for (int i = 0; i < relLocs.length; ++i) {
-            relLocs[i][0] = relLocsTo[i][0];
-            relLocs[i][1] = relLocsTo[i][1];
-        }
+    void restore(ByteBuffer buffer, TetrisGrid grid) {
+        // The grid is restored separately, squares included
+        this.grid = grid;
 
-        // Update the new row and column
-        col = colTo;
-        row = rowTo;
-        rotationState = stateRotatingTo;
+        type = SQUARE_TYPES[buffer.get()];
+        rotation = buffer.get();
+        col = buffer.getInt();
+        row = buffer.getInt();
+        shadowDistance = buffer.getInt();
+        displayShadow = buffer.get() != 0;
+        shape = getShape(type, rotation);
+    }
+
+    public void reset(SquareType type, TetrisGrid grid, boolean displayShadow) {
+        // Spawn anew at the top of the grid, leaving the old squares alone
+        this.grid = grid;
+        this.type = type;
+        this.displayShadow = displayShadow;
+
+        row = grid.getSpawnRow();
+        col = (grid.getNumCols() - 1) / 2;
+        rotation = 0;
+        shape = getShape(type, rotation);
+        shadowDistance = 0;
 
-        // Update the grid
         updateGrid();
+    }
 
-        return true;
+    public void lock() {
+        // Mark the squares as occupied (overlaps shadow)
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            grid.set(SQUARE_COLS[i] + col, SQUARE_ROWS[i] + row, type);
+        }
     }
 
     public void removeFromGrid() {
-        for (int[] relLoc : relLocs) {
-            grid.set(relLoc[0] + col, relLoc[1] + row, SquareType.EMPTY);
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            grid.setFloating(SQUARE_COLS[i] + col, SQUARE_ROWS[i] + row,
+                SquareType.EMPTY);
         }
 
         if (displayShadow) {
@@ -344,88 +376,26 @@ public class Tetromino {
     }
 
     private void removeShadow() {
-        for (int[] relLoc : relLocs) {
-            grid.set(relLoc[0] + col, relLoc[1] + row - shadowDistance,
-                SquareType.EMPTY);
-        }
-    }
-
-    private boolean isSelfOccupied(int col, int row) {
-        for (int[] ownLoc : relLocs) {
-            if (col == ownLoc[0] + this.col && row == ownLoc[1] + this.row) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    private RotationState getNextStateCW(RotationState state) {
-        switch (state) {
-            case UP:
-                return RotationState.RIGHT;
-            case RIGHT:
-                return RotationState.DOWN;
-            case DOWN:
-                return RotationState.LEFT;
-            case LEFT:
-                return RotationState.UP;
-            default:
-                return null;
-        }
-    }
-
-    private RotationState getNextStateCCW(RotationState state) {
-        switch (state) {
-            case UP:
-                return RotationState.LEFT;
-            case RIGHT:
-                return RotationState.UP;
-            case DOWN:
-                return RotationState.RIGHT;
-            case LEFT:
-                return RotationState.DOWN;
-            default:
-                return null;
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            grid.setFloating(SQUARE_COLS[i] + col, SQUARE_ROWS[i] + row
+                - shadowDistance, SquareType.EMPTY);
         }
     }
 
     private void updateGrid() {
         // Draw the shadow (previous should already have been removed)
         if (displayShadow) {
-            shadowDistance = 0;
-
-            boolean canMoveDown = true;
-
-            // Drop the shadow to calculate new distance
-            while (true) {
-                for (int[] relLoc : relLocs) {
-                    if (relLoc[1] + row - shadowDistance <= 0
-                        || grid.isOccupied(relLoc[0] + col, relLoc[1] + row
-                            - shadowDistance - 1)
-                        && !isSelfOccupied(relLoc[0] + col, relLoc[1] + row
-                            - shadowDistance - 1)) {
-                        canMoveDown = false;
-                        break;
-                    }
-                }
-
-                if (!canMoveDown) {
-                    break;
-                }
-
-                ++shadowDistance;
-            }
+            shadowDistance = getDropDistance(grid, shape, col, row);
 
-            for (int[] relLoc : relLocs) {
-                grid.set(relLoc[0] + col, relLoc[1] + row - shadowDistance,
-                    SquareType.SHADOW);
+            for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+                grid.setFloating(SQUARE_COLS[i] + col, SQUARE_ROWS[i] + row
+                    - shadowDistance, SquareType.SHADOW);
             }
         }
 
         // Place this tetromino in the grid (overlaps shadow)
-        for (int[] relLoc : relLocs) {
-            grid.set(relLoc[0] + col, relLoc[1] + row, type);
+        for (int i = shape; i < shape + NUM_SQUARES; ++i) {
+            grid.setFloating(SQUARE_COLS[i] + col, SQUARE_ROWS[i] + row, type);
         }
     }
 }
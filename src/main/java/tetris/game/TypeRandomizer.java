@@ -0,0 +1,117 @@
+package tetris.game;
+
+import java.nio.ByteBuffer;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public abstract class TypeRandomizer {
+    public static final int MAX_PREVIEW = 16;
+
+    // Enough for the generator, the preview, and any subclass state
+    static final int MAX_SNAPSHOT_SIZE = 64;
+
+    protected static final SquareType[] TETROMINO_TYPES = new SquareType[] {
+        SquareType.I, SquareType.J, SquareType.L, SquareType.O, SquareType.S,
+        SquareType.T, SquareType.Z};
+
+    protected static final SquareType[] SQUARE_TYPES = SquareType.values();
+
+    // Upcoming types, generated lazily into a ring buffer
+    private final SquareType[] preview;
+
+    private int previewStart, previewSize;
+
+    // SplitMix64 state, private to this randomizer
+    private long state;
+
+    protected TypeRandomizer() {
+        preview = new SquareType[MAX_PREVIEW];
+    }
+
+    public static TypeRandomizer forName(String name) {
+        if (name.equals(BagRandomizer.NAME)) {
+            return new BagRandomizer();
+        } else if (name.equals(HistoryRandomizer.NAME)) {
+            return new HistoryRandomizer();
+        } else if (name.equals(UniformRandomizer.NAME)) {
+            return new UniformRandomizer();
+        }
+
+        throw new IllegalArgumentException("Unknown randomizer: " + name);
+    }
+
+    public abstract String getName();
+
+    public void reset(long seed) {
+        state = seed;
+        previewStart = previewSize = 0;
+        resetTypes();
+    }
+
+    public SquareType next() {
+        SquareType type = peek(0);
+
+        previewStart = (previewStart + 1) % MAX_PREVIEW;
+        --previewSize;
+
+        return type;
+    }
+
+    public SquareType peek(int index) {
+        if (index < 0 || index >= MAX_PREVIEW) {
+            throw new IndexOutOfBoundsException("Preview index: " + index);
+        }
+
+        // Generating ahead does not change the sequence of types
+        while (previewSize <= index) {
+            preview[(previewStart + previewSize) % MAX_PREVIEW] =
+                generateType();
+            ++previewSize;
+        }
+
+        return preview[(previewStart + index) % MAX_PREVIEW];
+    }
+
+    public void save(ByteBuffer buffer) {
+        buffer.putLong(state);
+        buffer.put((byte)previewSize);
+
+        // Save the preview from its start, so the ring is restored unrotated
+        for (int i = 0; i < previewSize; ++i) {
+            buffer.put((byte)preview[(previewStart + i) % MAX_PREVIEW]
+                .ordinal());
+        }
+
+        saveTypes(buffer);
+    }
+
+    public void restore(ByteBuffer buffer) {
+        state = buffer.getLong();
+        previewStart = 0;
+        previewSize = buffer.get();
+
+        for (int i = 0; i < previewSize; ++i) {
+            preview[i] = SQUARE_TYPES[buffer.get()];
+        }
+
+        restoreTypes(buffer);
+    }
+
+    protected abstract void resetTypes();
+
+    protected abstract void saveTypes(ByteBuffer buffer);
+
+    protected abstract void restoreTypes(ByteBuffer buffer);
+
+    protected abstract SquareType generateType();
+
+    protected int nextInt(int bound) {
+        long z = state += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+
+        // Scale the high 32 bits into [0, bound)
+        return (int)(((z >>> 32) * bound) >>> 32);
+    }
+}
@@ -0,0 +1,34 @@
+package tetris.game;
+
+import java.nio.ByteBuffer;
+
+import tetris.game.TetrisGrid.SquareType;
+
+public class UniformRandomizer extends TypeRandomizer {
+    public static final String NAME = "uniform";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected void resetTypes() {
+        // No state beyond the random generator
+    }
+
+    @Override
+    protected void saveTypes(ByteBuffer buffer) {
+        // No state beyond the random generator
+    }
+
+    @Override
+    protected void restoreTypes(ByteBuffer buffer) {
+        // No state beyond the random generator
+    }
+
+    @Override
+    protected SquareType generateType() {
+        return TETROMINO_TYPES[nextInt(TETROMINO_TYPES.length)];
+    }
+}
@@ -0,0 +1,89 @@
+package tetris.game;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorRowScanner extends RowScanner {
+    public static final String NAME = "vector";
+
+    private static final VectorSpecies<Long> SPECIES =
+        LongVector.SPECIES_PREFERRED;
+
+    // Rows of up to 1024 columns were measured as fast or faster with the
+    // scalar loop, but rows of 2048 were clearly faster with vectors
+    private static final int MIN_WORDS = 2048 / Long.SIZE;
+
+    // All ones in the last lane only
+    private static final LongVector LAST_LANE =
+        LongVector.zero(SPECIES).withLane(SPECIES.length() - 1, -1L);
+
+    public VectorRowScanner() {
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMinWords() {
+        // A whole number of vectors
+        int length = SPECIES.length();
+
+        return (MIN_WORDS + length - 1) / length * length;
+    }
+
+    @Override
+    public boolean isFull(long[] words, long lastWordMask) {
+        int length = SPECIES.length(), last = words.length - 1, i = 0;
+
+        // Compare whole vectors of words to all ones
+        for (int bound = SPECIES.loopBound(last); i < bound; i += length) {
+            if (LongVector.fromArray(SPECIES, words, i)
+                .compare(VectorOperators.NE, -1L).anyTrue()) {
+                return false;
+            }
+        }
+
+        // Leave the last word out of the vector that it ends, if any, by
+        // setting all of its bits
+        if (words.length - i == length) {
+            if (LongVector.fromArray(SPECIES, words, i).or(LAST_LANE)
+                .compare(VectorOperators.NE, -1L).anyTrue()) {
+                return false;
+            }
+
+            i = last;
+        }
+
+        for (; i < last; ++i) {
+            if (words[i] != -1L) {
+                return false;
+            }
+        }
+
+        return words[last] == lastWordMask;
+    }
+
+    @Override
+    public boolean isEmpty(long[] words) {
+        int length = SPECIES.length(), i = 0;
+
+        for (int bound = SPECIES.loopBound(words.length); i < bound; i +=
+            length) {
+            if (LongVector.fromArray(SPECIES, words, i)
+                .compare(VectorOperators.NE, 0L).anyTrue()) {
+                return false;
+            }
+        }
+
+        for (; i < words.length; ++i) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
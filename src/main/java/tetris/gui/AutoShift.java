@@ -0,0 +1,168 @@
+package tetris.gui;
+
+import tetris.game.TetrisClock;
+import tetris.game.TetrisGame;
+
+public class AutoShift {
+    public static final int LEFT = -1, RIGHT = 1;
+
+    public static final int DEFAULT_DELAY_MILLIS = 150,
+            DEFAULT_REPEAT_MILLIS = 20, DEFAULT_SOFT_DROP_FACTOR = 50;
+
+    private TetrisGame game;
+
+    private TetrisClock clock;
+
+    // Written from the event dispatch thread, read wherever the game runs
+    private volatile int delayMillis, repeatMillis, softDropFactor;
+
+    private boolean leftHeld, rightHeld, downHeld;
+
+    private int direction;
+
+    // Times of the next repeated shift and soft drop, in nanoseconds
+    private long nextShift, nextDrop;
+
+    public AutoShift(TetrisGame game, TetrisClock clock) {
+        this.game = game;
+        this.clock = clock;
+
+        delayMillis = DEFAULT_DELAY_MILLIS;
+        repeatMillis = DEFAULT_REPEAT_MILLIS;
+        softDropFactor = DEFAULT_SOFT_DROP_FACTOR;
+    }
+
+    public int getDelayMillis() {
+        return delayMillis;
+    }
+
+    public int getRepeatMillis() {
+        return repeatMillis;
+    }
+
+    public int getSoftDropFactor() {
+        return softDropFactor;
+    }
+
+    public boolean isActive() {
+        return direction != 0 || downHeld;
+    }
+
+    public void setDelayMillis(int delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public void setRepeatMillis(int repeatMillis) {
+        this.repeatMillis = repeatMillis;
+    }
+
+    public void setSoftDropFactor(int softDropFactor) {
+        this.softDropFactor = softDropFactor;
+    }
+
+    public void press(int direction, long now) {
+        // Ignore the key repeats of the system
+        if (direction == LEFT ? leftHeld : rightHeld) {
+            return;
+        }
+
+        if (direction == LEFT) {
+            leftHeld = true;
+        } else {
+            rightHeld = true;
+        }
+
+        // The last key pressed wins, and shifts once right away
+        this.direction = direction;
+        shift();
+        nextShift = now + delayMillis * 1000000L;
+    }
+
+    public void release(int direction, long now) {
+        if (direction == LEFT) {
+            leftHeld = false;
+        } else {
+            rightHeld = false;
+        }
+
+        if (direction != this.direction) {
+            return;
+        }
+
+        // Fall back to the other key if it is still held, charging again
+        if (leftHeld || rightHeld) {
+            this.direction = leftHeld ? LEFT : RIGHT;
+            nextShift = now + delayMillis * 1000000L;
+        } else {
+            this.direction = 0;
+        }
+    }
+
+    public void pressDown(long now) {
+        if (downHeld) {
+            return;
+        }
+
+        downHeld = true;
+        game.moveTetrominoDown();
+        nextDrop = now + getDropNanos();
+    }
+
+    public void releaseDown() {
+        downHeld = false;
+    }
+
+    public void releaseAll() {
+        leftHeld = rightHeld = downHeld = false;
+        direction = 0;
+    }
+
+    public void update(long now) {
+        // Apply every move due by now, however late this update is
+        if (direction != 0 && now - nextShift >= 0) {
+            long repeatNanos = repeatMillis * 1000000L;
+
+            if (repeatNanos == 0) {
+                // Shift instantly all the way, for as long as the key is held
+                while (shift()) {
+                }
+            } else {
+                for (; now - nextShift >= 0; nextShift += repeatNanos) {
+                    // Stay charged against a wall, without saving up moves
+                    if (!shift()) {
+                        nextShift = now + repeatNanos;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (downHeld && now - nextDrop >= 0) {
+            long dropNanos = getDropNanos();
+
+            if (dropNanos == 0) {
+                while (game.moveTetrominoDown()) {
+                }
+            } else {
+                for (; now - nextDrop >= 0; nextDrop += dropNanos) {
+                    if (!game.moveTetrominoDown()) {
+                        nextDrop = now + dropNanos;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean shift() {
+        return direction == LEFT ? game.moveTetrominoLeft() : game
+            .moveTetrominoRight();
+    }
+
+    private long getDropNanos() {
+        // Soft drops are a multiple of gravity, or instant for a factor of 0
+        int factor = softDropFactor;
+
+        return factor == 0 ? 0 : clock.getDelay() * 1000000L / factor;
+    }
+}
@@ -0,0 +1,101 @@
+package tetris.gui;
+
+import java.io.PrintWriter;
+
+public class LatencyHistogram {
+    // Each power of two is split into this many linear buckets, which keeps
+    // every recorded value within about 6% of its bucket
+    private static final int SUB_BITS = 4, SUB_BUCKETS = 1 << SUB_BITS;
+
+    // Longer latencies, over 18 minutes, all land in the last bucket
+    private static final int MAX_BITS = 40;
+
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    private final long[] counts;
+
+    private long count, max;
+
+    public LatencyHistogram() {
+        counts = new long[getBucket(MAX_VALUE) + 1];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+
+        ++counts[getBucket(value)];
+        ++count;
+        max = Math.max(max, value);
+    }
+
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; ++i) {
+            seen += counts[i];
+
+            // Report the top of the bucket, but never more than was recorded
+            if (seen >= rank) {
+                return Math.min(getLowerBound(i + 1) - 1, max);
+            }
+        }
+
+        return max;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = 0;
+        }
+
+        count = max = 0;
+    }
+
+    public void writeTo(PrintWriter out) {
+        out.printf("count %d, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d ns%n",
+            count, getPercentile(50), getPercentile(90), getPercentile(99),
+            getPercentile(99.9), max);
+
+        // One line per bucket in use, with its bounds in nanoseconds
+        for (int i = 0; i < counts.length; ++i) {
+            if (counts[i] != 0) {
+                out.printf("%d %d %d%n", getLowerBound(i), getLowerBound(i + 1)
+                    - 1, counts[i]);
+            }
+        }
+    }
+
+    private static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int)value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+
+        return (exponent - SUB_BITS + 1 << SUB_BITS)
+            + (int)(value >>> exponent - SUB_BITS & SUB_BUCKETS - 1);
+    }
+
+    private static long getLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = (bucket >>> SUB_BITS) - 1;
+
+        return (long)(SUB_BUCKETS + (bucket & SUB_BUCKETS - 1)) << shift;
+    }
+}
@@ -0,0 +1,90 @@
+package tetris.gui;
+
+import java.io.PrintWriter;
+
+public class LatencyTracker {
+    // Inputs waiting for a frame, beyond which inputs are not measured
+    private static final int MAX_PENDING = 32;
+
+    private static final char[] P50 = "Latency p50 ".toCharArray(),
+            P99 = " ms, p99 ".toCharArray(), MAX = " ms, max ".toCharArray(),
+            MS = " ms".toCharArray();
+
+    // From the key event to the frame, to the game change, and from the
+    // game change to the frame
+    private final LatencyHistogram total, input, render;
+
+    private final long[] pendingEvents, pendingChanges, pendingVersions;
+
+    private int numPending;
+
+    public LatencyTracker() {
+        total = new LatencyHistogram();
+        input = new LatencyHistogram();
+        render = new LatencyHistogram();
+
+        pendingEvents = new long[MAX_PENDING];
+        pendingChanges = new long[MAX_PENDING];
+        pendingVersions = new long[MAX_PENDING];
+        numPending = 0;
+    }
+
+    public synchronized void input(long event, long change, long version) {
+        if (numPending < MAX_PENDING) {
+            pendingEvents[numPending] = event;
+            pendingChanges[numPending] = change;
+            pendingVersions[numPending++] = version;
+        }
+    }
+
+    public synchronized void painted(long now, long version) {
+        int kept = 0;
+
+        for (int i = 0; i < numPending; ++i) {
+            // Keep waiting for inputs that the painted snapshot is too old
+            // to show
+            if (pendingVersions[i] > version) {
+                pendingEvents[kept] = pendingEvents[i];
+                pendingChanges[kept] = pendingChanges[i];
+                pendingVersions[kept++] = pendingVersions[i];
+                continue;
+            }
+
+            total.record(now - pendingEvents[i]);
+            input.record(pendingChanges[i] - pendingEvents[i]);
+            render.record(now - pendingChanges[i]);
+        }
+
+        numPending = kept;
+    }
+
+    public synchronized void clear() {
+        total.clear();
+        input.clear();
+        render.clear();
+        numPending = 0;
+    }
+
+    public synchronized int format(char[] text, int length) {
+        // Only the whole latency, from the key event to the frame
+        length = TetrisRenderer.append(text, length, P50);
+        length =
+            TetrisRenderer.appendMillis(text, length, total.getPercentile(50));
+        length = TetrisRenderer.append(text, length, P99);
+        length =
+            TetrisRenderer.appendMillis(text, length, total.getPercentile(99));
+        length = TetrisRenderer.append(text, length, MAX);
+        length = TetrisRenderer.appendMillis(text, length, total.getMax());
+
+        return TetrisRenderer.append(text, length, MS);
+    }
+
+    public synchronized void writeTo(PrintWriter out) {
+        out.println("# Key event to frame painted");
+        total.writeTo(out);
+        out.println("# Key event to game changed");
+        input.writeTo(out);
+        out.println("# Game changed to frame painted");
+        render.writeTo(out);
+    }
+}
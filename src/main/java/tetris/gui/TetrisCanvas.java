@@ -0,0 +1,226 @@
+package tetris.gui;
+
+import java.awt.Canvas;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+import tetris.game.GameSnapshot;
+import tetris.game.SnapshotBuffer;
+import tetris.jfr.PaintEvent;
+import tetris.metrics.TetrisMetrics;
+
+public class TetrisCanvas extends Canvas implements TetrisView, Runnable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int BUFFERS = 2, DEFAULT_REFRESH_RATE = 60;
+
+    private static final char[] FPS = " fps, ".toCharArray(),
+            WORK = " ms work, ".toCharArray(), MAX = " ms max".toCharArray();
+
+    // Advanced on this thread between frames, rather than on its own
+    private final TetrisEngine engine;
+
+    private final SnapshotBuffer snapshots;
+
+    private final TetrisRenderer renderer;
+
+    private final LatencyTracker latency;
+
+    private final TetrisMetrics metrics;
+
+    private final char[] overlay, latencyText;
+
+    private Thread thread;
+
+    private volatile boolean running, latencyShown;
+
+    private int overlayLength;
+
+    // Frame times measured over the current second
+    private long windowStart, windowWork, windowMaxInterval, lastFrame;
+
+    private int windowFrames;
+
+    public TetrisCanvas() {
+        engine = new TetrisEngine();
+        snapshots = engine.getSnapshots();
+        latency = engine.getLatencyTracker();
+        metrics = engine.getMetrics();
+
+        renderer = new TetrisRenderer();
+        overlay = new char[64];
+        latencyText = new char[64];
+
+        // Everything is painted by the loop, never by the toolkit
+        setIgnoreRepaint(true);
+        setBackground(TetrisRenderer.BACKGROUND);
+        setFocusable(true);
+
+        addKeyListener(new TetrisKeyListener(engine, false));
+    }
+
+    @Override
+    public TetrisEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public void setLatencyShown(boolean latencyShown) {
+        this.latencyShown = latencyShown;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(BUFFERS);
+
+        running = true;
+        thread = new Thread(this, "Tetris loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        running = false;
+
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        super.removeNotify();
+    }
+
+    @Override
+    public void run() {
+        long frameNanos = 1000000000L / getRefreshRate();
+        long nextFrame = System.nanoTime();
+
+        engine.resetLag(nextFrame);
+        windowStart = lastFrame = nextFrame;
+
+        while (running) {
+            long start = System.nanoTime();
+
+            // Advance the game in fixed steps, then show it once
+            engine.advance(start);
+
+            long renderStart = System.nanoTime();
+            render();
+
+            long end = System.nanoTime();
+            latency.painted(end, snapshots.getFront().getVersion());
+            metrics.framePainted(end - renderStart);
+            measureFrame(start, end);
+
+            // Wait for the next display refresh, unless already late
+            nextFrame += frameNanos;
+
+            long wait = nextFrame - System.nanoTime();
+
+            if (wait < 0) {
+                nextFrame -= wait;
+            }
+
+            while (wait > 0) {
+                LockSupport.parkNanos(wait);
+                wait = nextFrame - System.nanoTime();
+            }
+        }
+    }
+
+    private int getRefreshRate() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+
+        if (config != null) {
+            DisplayMode mode = config.getDevice().getDisplayMode();
+
+            if (mode != null
+                && mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                return mode.getRefreshRate();
+            }
+        }
+
+        return DEFAULT_REFRESH_RATE;
+    }
+
+    private void render() {
+        BufferStrategy strategy = getBufferStrategy();
+        int width = getWidth(), height = getHeight();
+
+        if (strategy == null || width <= 0 || height <= 0) {
+            return;
+        }
+
+        // Keep showing the last snapshot until the engine publishes another
+        snapshots.acquire();
+
+        GameSnapshot snapshot = snapshots.getFront();
+        renderer.layOut(snapshot, width, height, getGraphicsConfiguration());
+
+        PaintEvent event = new PaintEvent();
+        event.begin();
+
+        // Repeat until the buffers survive the whole frame
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+
+                try {
+                    renderer.paint(g, snapshot);
+
+                    renderer.paintOverlay(g, overlay, overlayLength, 0);
+
+                    if (latencyShown) {
+                        renderer.paintOverlay(g, latencyText, latency.format(
+                            latencyText, 0), 1);
+                    }
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        // Flush the frame to the display now rather than when convenient
+        Toolkit.getDefaultToolkit().sync();
+
+        if (event.shouldCommit()) {
+            event.cells = renderer.getCellsPainted();
+            event.commit();
+        }
+    }
+
+    private void measureFrame(long start, long end) {
+        windowWork += end - start;
+        windowMaxInterval = Math.max(windowMaxInterval, start - lastFrame);
+        lastFrame = start;
+        ++windowFrames;
+
+        if (end - windowStart < 1000000000L) {
+            return;
+        }
+
+        // Report frames per second, and the mean work and longest interval
+        // of each frame, in milliseconds
+        int length = TetrisRenderer.appendInt(overlay, 0, windowFrames);
+        length = TetrisRenderer.append(overlay, length, FPS);
+        length =
+            TetrisRenderer.appendMillis(overlay, length, windowWork
+                / windowFrames);
+        length = TetrisRenderer.append(overlay, length, WORK);
+        length =
+            TetrisRenderer.appendMillis(overlay, length, windowMaxInterval);
+        overlayLength = TetrisRenderer.append(overlay, length, MAX);
+
+        windowStart = end;
+        windowWork = windowMaxInterval = windowFrames = 0;
+    }
+}
@@ -0,0 +1,356 @@
+package tetris.gui;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+
+import tetris.ai.TetrisBot;
+import tetris.game.GameEventRing;
+import tetris.game.ManualClock;
+import tetris.game.SnapshotBuffer;
+import tetris.game.TetrisGame;
+import tetris.game.TetrisGame.GameState;
+import tetris.metrics.TetrisMetrics;
+import tetris.replay.ReplayPlayer;
+import tetris.replay.ReplayReader;
+import tetris.replay.ReplayRecorder;
+
+public class TetrisEngine implements Runnable {
+    // The game advances one millisecond per step, whatever the frame rate
+    private static final long STEP_NANOS = 1000000, MAX_LAG_NANOS = 250000000;
+
+    private static final int BOT_MILLIS = 15, EVENT_CAPACITY = 1024;
+
+    private final ManualClock clock;
+
+    private final TetrisGame game, replayGame;
+
+    private final TetrisBot bot;
+
+    private final ReplayRecorder recorder;
+
+    private final AutoShift autoShift;
+
+    private final ReplayPlayer replayPlayer;
+
+    // Work handed over from the event dispatch thread
+    private final ConcurrentLinkedQueue<Runnable> tasks;
+
+    // What the renderer paints, never the live game
+    private final SnapshotBuffer snapshots;
+
+    // What happened in the game, for anyone to follow at their own pace
+    private final GameEventRing events;
+
+    private final LatencyTracker latency;
+
+    private final TetrisMetrics metrics;
+
+    private Runnable publishListener;
+
+    private Thread thread;
+
+    private volatile boolean running, botEnabled;
+
+    private boolean replayShown, replayRunning;
+
+    private long steps, replayTime, previous, lag, version;
+
+    // What was last published, to tell whether anything changed since
+    private TetrisGame publishedGame;
+
+    private GameState publishedState;
+
+    private int publishedScore, publishedLines, publishedLevel;
+
+    private boolean publishedShadow;
+
+    public TetrisEngine() {
+        clock = new ManualClock();
+        game = new TetrisGame(clock);
+
+        // Let the bot press one key per step so that its moves are visible
+        bot =
+            new TetrisBot(TetrisBot.DEFAULT_BUDGET_NANOS,
+                TetrisBot.DEFAULT_MAX_DEPTH, new ForkJoinPool());
+        bot.setStepwise(true);
+
+        // Always record the last game, so that it can be saved at any time
+        recorder = new ReplayRecorder();
+        game.addListener(recorder);
+        autoShift = new AutoShift(game, clock);
+
+        metrics = new TetrisMetrics();
+        game.setMonitor(metrics);
+
+        events = new GameEventRing(EVENT_CAPACITY);
+        game.setEventRing(events);
+
+        // Replays bring their own gravity, so their clock never ticks
+        replayGame = new TetrisGame(new ManualClock());
+        replayPlayer = new ReplayPlayer();
+
+        tasks = new ConcurrentLinkedQueue<Runnable>();
+        snapshots = new SnapshotBuffer();
+        latency = new LatencyTracker();
+
+        previous = System.nanoTime();
+        lag = 0;
+    }
+
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    public ReplayRecorder getRecorder() {
+        return recorder;
+    }
+
+    public AutoShift getAutoShift() {
+        return autoShift;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latency;
+    }
+
+    public TetrisMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SnapshotBuffer getSnapshots() {
+        return snapshots;
+    }
+
+    public GameEventRing getEvents() {
+        return events;
+    }
+
+    public void setPublishListener(Runnable publishListener) {
+        this.publishListener = publishListener;
+    }
+
+    public void setBotEnabled(boolean botEnabled) {
+        this.botEnabled = botEnabled;
+    }
+
+    public void update(Runnable task) {
+        // The next published snapshot shows the result
+        tasks.add(task);
+    }
+
+    public void playReplay(final ReplayReader reader) {
+        update(new Runnable() {
+            @Override
+            public void run() {
+                // Pause the game, which also ignores any keys during the
+                // replay
+                if (game.getState() == GameState.ON) {
+                    game.pauseGame();
+                }
+
+                replayGame.setDisplayShadow(game.isDisplayShadow());
+                replayPlayer.start(replayGame, reader);
+                replayTime = 0;
+                replayShown = replayRunning = true;
+            }
+        });
+    }
+
+    public void resetLag(long now) {
+        // Count steps from now, not from whenever the engine last ran
+        previous = now;
+        lag = 0;
+    }
+
+    public void start() {
+        running = true;
+        resetLag(System.nanoTime());
+
+        thread = new Thread(this, "Tetris engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+
+        while (running) {
+            advance(System.nanoTime());
+
+            // Wake up once per step, unless already late
+            next += STEP_NANOS;
+
+            long wait = next - System.nanoTime();
+
+            if (wait < 0) {
+                next -= wait;
+            }
+
+            while (wait > 0) {
+                LockSupport.parkNanos(wait);
+                wait = next - System.nanoTime();
+            }
+        }
+    }
+
+    public boolean advance(long now) {
+        // Drop the time lost to long stalls instead of racing to catch up
+        lag = Math.min(lag + now - previous, MAX_LAG_NANOS);
+        previous = now;
+
+        Runnable task;
+
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+
+        // Advance the game in fixed steps, then publish it once
+        long stepTime = now - lag;
+
+        for (; lag >= STEP_NANOS; lag -= STEP_NANOS) {
+            stepTime += STEP_NANOS;
+            step(stepTime);
+        }
+
+        return publish();
+    }
+
+    public boolean publish() {
+        TetrisGame shownGame = getShownGame();
+
+        if (!isChanged(shownGame)) {
+            return false;
+        }
+
+        snapshots.getBack().capture(shownGame);
+        snapshots.getBack().setVersion(++version);
+        snapshots.publish();
+
+        publishedGame = shownGame;
+        publishedState = shownGame.getState();
+        publishedScore = shownGame.getScore();
+        publishedLines = shownGame.getLines();
+        publishedLevel = shownGame.getLevel();
+        publishedShadow = shownGame.isDisplayShadow();
+
+        shownGame.getBasketGrid().clearChanges();
+        shownGame.getNextGrid().clearChanges();
+        shownGame.getHoldGrid().clearChanges();
+
+        if (publishListener != null) {
+            publishListener.run();
+        }
+
+        return true;
+    }
+
+    public void pressKey(int code, boolean modified, long now) {
+        switch (code) {
+            case KeyEvent.VK_UP:
+            case KeyEvent.VK_NUMPAD8:
+                game.rotateTetromino(modified);
+                break;
+            case KeyEvent.VK_SPACE:
+            case KeyEvent.VK_ENTER:
+                game.dropTetromino(modified);
+                break;
+            case KeyEvent.VK_SHIFT:
+                game.holdTetromino();
+                break;
+            case KeyEvent.VK_LEFT:
+            case KeyEvent.VK_NUMPAD4:
+                autoShift.press(AutoShift.LEFT, now);
+                break;
+            case KeyEvent.VK_RIGHT:
+            case KeyEvent.VK_NUMPAD6:
+                autoShift.press(AutoShift.RIGHT, now);
+                break;
+            case KeyEvent.VK_DOWN:
+            case KeyEvent.VK_NUMPAD2:
+                autoShift.pressDown(now);
+                break;
+        }
+
+        // Measure how long the change, if any, takes to appear, which is
+        // in the next snapshot published
+        if (isChanged(getShownGame())) {
+            latency.input(now, System.nanoTime(), version + 1);
+        }
+    }
+
+    public void releaseKey(int code, long now) {
+        switch (code) {
+            case KeyEvent.VK_LEFT:
+            case KeyEvent.VK_NUMPAD4:
+                autoShift.release(AutoShift.LEFT, now);
+                break;
+            case KeyEvent.VK_RIGHT:
+            case KeyEvent.VK_NUMPAD6:
+                autoShift.release(AutoShift.RIGHT, now);
+                break;
+            case KeyEvent.VK_DOWN:
+            case KeyEvent.VK_NUMPAD2:
+                autoShift.releaseDown();
+                break;
+        }
+    }
+
+    private TetrisGame getShownGame() {
+        // Show the last replay until the game continues
+        replayShown = replayShown && game.getState() != GameState.ON;
+
+        return replayShown ? replayGame : game;
+    }
+
+    private boolean isChanged(TetrisGame shownGame) {
+        return shownGame != publishedGame
+            || shownGame.getBasketGrid().isChanged()
+            || shownGame.getNextGrid().isChanged()
+            || shownGame.getHoldGrid().isChanged()
+            || shownGame.getState() != publishedState
+            || shownGame.getScore() != publishedScore
+            || shownGame.getLines() != publishedLines
+            || shownGame.getLevel() != publishedLevel
+            || shownGame.isDisplayShadow() != publishedShadow;
+    }
+
+    private void step(long now) {
+        ++steps;
+
+        // The clock only runs with the game, so pauses are not part of it
+        if (game.getState() == GameState.ON) {
+            long time = clock.getTime() + 1;
+
+            while (clock.advanceTo(time)) {
+                game.moveTetrominoDownTimer();
+            }
+        }
+
+        autoShift.update(now);
+
+        if (botEnabled && steps % BOT_MILLIS == 0) {
+            bot.play(game);
+        }
+
+        // Stop the replay at the end, or once the game is resumed or
+        // restarted
+        if (replayRunning
+            && (game.getState() == GameState.ON || !replayPlayer
+                .advanceTo(++replayTime))) {
+            replayRunning = false;
+        }
+    }
+}
@@ -1,22 +1,51 @@
 package tetris.gui;
 
+import java.awt.BorderLayout;
+
+import javax.management.JMException;
 import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 public class TetrisFrame extends JFrame {
-    private TetrisPanel panel;
+    private static final String USAGE =
+        "Usage: java -jar tetris.jar [--active]";
+
+    private TetrisView view;
 
-    public TetrisFrame() {
+    public TetrisFrame(boolean active) {
         super("Tetris");
 
-        panel = new TetrisPanel();
-        panel.addKeyListener(new TetrisKeyListener(panel, panel.getGame(),
-            false));
-        panel.setFocusable(true);
+        if (active) {
+            // Heavyweight canvases would otherwise hide lightweight menus
+            JPopupMenu.setDefaultLightWeightPopupEnabled(false);
+
+            TetrisCanvas canvas = new TetrisCanvas();
+            JPanel content = new JPanel(new BorderLayout());
+            content.add(canvas, BorderLayout.CENTER);
+
+            view = canvas;
+            setContentPane(content);
+        } else {
+            TetrisPanel panel = new TetrisPanel();
+            panel.addKeyListener(new TetrisKeyListener(panel.getEngine(),
+                false));
+            panel.setFocusable(true);
+
+            view = panel;
+            setContentPane(panel);
+        }
+
+        setJMenuBar(new TetrisMenuBar(view));
 
-        setJMenuBar(new TetrisMenuBar(panel));
-        setContentPane(panel);
+        try {
+            // Let JConsole and the like watch the game
+            view.getEngine().getMetrics().register("gui");
+        } catch (JMException ex) {
+            // Proceed without the metrics bean
+        }
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(620, 650);
@@ -25,6 +54,21 @@ public class TetrisFrame extends JFrame {
     }
 
     public static void main(String... args) {
+        boolean active = false;
+
+        // Render actively from a game loop, instead of through Swing
+        for (String arg : args) {
+            if (arg.equals("--active")) {
+                active = true;
+            } else {
+                System.err.println("Unknown option: " + arg);
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+
+        final boolean runActive = active;
+
         try {
             // Use system-specific UI if possible
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -35,7 +79,7 @@ public class TetrisFrame extends JFrame {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                new TetrisFrame();
+                new TetrisFrame(runActive);
             }
         });
     }
@@ -3,8 +3,14 @@ package tetris.gui;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
 
 import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
@@ -13,22 +19,30 @@ import javax.swing.JSeparator;
 import javax.swing.KeyStroke;
 
 import tetris.game.TetrisGame;
+import tetris.replay.ReplayReader;
 
 public class TetrisMenuBar extends JMenuBar {
     private TetrisGame game;
 
-    private TetrisPanel panel;
+    private TetrisView view;
 
-    private JMenuItem newGame, pause, quit, customInitialLevel, customSize,
-            howToPlay, about;
+    private TetrisEngine engine;
 
-    private JCheckBoxMenuItem rotateClockwise, moveAfterDrop, displayShadow;
+    private JMenuItem newGame, pause, saveReplay, openReplay, saveLatencies,
+            quit, customInitialLevel, customSize, keyTimings, howToPlay,
+            about;
 
-    public TetrisMenuBar(TetrisPanel panel) {
+    private JFileChooser fileChooser;
+
+    private JCheckBoxMenuItem rotateClockwise, moveAfterDrop, displayShadow,
+            botPlayer, latencyOverlay;
+
+    public TetrisMenuBar(TetrisView view) {
         super();
 
-        this.panel = panel;
-        game = this.panel.getGame();
+        this.view = view;
+        engine = view.getEngine();
+        game = engine.getGame();
 
         MenuBarListener menuBarListener = new MenuBarListener();
 
@@ -52,6 +66,17 @@ public class TetrisMenuBar extends JMenuBar {
         pause.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_P,
             KeyEvent.VK_ALT));
 
+        saveReplay = new JMenuItem("Save Replay...", 'S');
+        saveReplay.addActionListener(menuBarListener);
+
+        openReplay = new JMenuItem("Open Replay...", 'O');
+        openReplay.addActionListener(menuBarListener);
+
+        saveLatencies = new JMenuItem("Save Latencies...", 'L');
+        saveLatencies.addActionListener(menuBarListener);
+
+        fileChooser = new JFileChooser();
+
         quit = new JMenuItem("Quit", 'Q');
         quit.addActionListener(menuBarListener);
         quit.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Q,
@@ -75,12 +100,23 @@ public class TetrisMenuBar extends JMenuBar {
         displayShadow.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S,
             KeyEvent.VK_ALT));
 
+        botPlayer = new JCheckBoxMenuItem("Computer Player");
+        botPlayer.setMnemonic('P');
+        botPlayer.addActionListener(menuBarListener);
+
+        latencyOverlay = new JCheckBoxMenuItem("Latency Overlay");
+        latencyOverlay.setMnemonic('L');
+        latencyOverlay.addActionListener(menuBarListener);
+
         customInitialLevel = new JMenuItem("Custom Initial Level", 'C');
         customInitialLevel.addActionListener(menuBarListener);
 
         customSize = new JMenuItem("Custom Size", 'U');
         customSize.addActionListener(menuBarListener);
 
+        keyTimings = new JMenuItem("Key Timings", 'K');
+        keyTimings.addActionListener(menuBarListener);
+
         howToPlay = new JMenuItem("How to Play", 'H');
         howToPlay.addActionListener(menuBarListener);
         howToPlay.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F1, 0));
@@ -92,14 +128,21 @@ public class TetrisMenuBar extends JMenuBar {
         gameMenu.add(newGame);
         gameMenu.add(pause);
         gameMenu.add(new JSeparator());
+        gameMenu.add(saveReplay);
+        gameMenu.add(openReplay);
+        gameMenu.add(saveLatencies);
+        gameMenu.add(new JSeparator());
         gameMenu.add(quit);
 
         settingsMenu.add(rotateClockwise);
         settingsMenu.add(moveAfterDrop);
         settingsMenu.add(displayShadow);
+        settingsMenu.add(botPlayer);
+        settingsMenu.add(latencyOverlay);
         settingsMenu.add(new JSeparator());
         settingsMenu.add(customInitialLevel);
         settingsMenu.add(customSize);
+        settingsMenu.add(keyTimings);
 
         helpMenu.add(howToPlay);
         helpMenu.add(new JSeparator());
@@ -119,6 +162,115 @@ public class TetrisMenuBar extends JMenuBar {
         pause.setText("Pause");
     }
 
+    private void saveReplay() {
+        if (!engine.getRecorder().hasGame()) {
+            JOptionPane.showMessageDialog(null, "No game to save!", "Error",
+                JOptionPane.ERROR_MESSAGE);
+
+            return;
+        }
+
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        try {
+            OutputStream out =
+                new FileOutputStream(fileChooser.getSelectedFile());
+
+            try {
+                engine.getRecorder().writeTo(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Cannot save replay!",
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void openReplay() {
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        try {
+            ReplayReader reader =
+                ReplayReader.open(fileChooser.getSelectedFile());
+
+            // Play the first replay of the file
+            if (!reader.nextReplay()) {
+                throw new IllegalArgumentException("Empty replay");
+            }
+
+            engine.playReplay(reader);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Cannot open replay!",
+                "Error", JOptionPane.ERROR_MESSAGE);
+        } catch (RuntimeException ex) {
+            JOptionPane.showMessageDialog(null, "Illegal replay!", "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void saveLatencies() {
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        try {
+            PrintWriter out =
+                new PrintWriter(new FileWriter(fileChooser.getSelectedFile()));
+
+            try {
+                engine.getLatencyTracker().writeTo(out);
+            } finally {
+                out.close();
+            }
+
+            if (out.checkError()) {
+                throw new IOException("Cannot write latencies");
+            }
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Cannot save latencies!",
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void setKeyTimings() {
+        AutoShift autoShift = engine.getAutoShift();
+        int delay = 0, repeat = 0, factor = 0;
+
+        try {
+            delay =
+                Integer.parseInt(JOptionPane.showInputDialog(
+                    "Auto Shift Delay (0-1000 ms):",
+                    autoShift.getDelayMillis()));
+            repeat =
+                Integer.parseInt(JOptionPane.showInputDialog(
+                    "Auto Repeat Rate (0-1000 ms, 0 for instant):",
+                    autoShift.getRepeatMillis()));
+            factor =
+                Integer.parseInt(JOptionPane.showInputDialog(
+                    "Soft Drop Factor (0-1000, 0 for instant):",
+                    autoShift.getSoftDropFactor()));
+
+            if (delay < 0 || delay > 1000 || repeat < 0 || repeat > 1000
+                || factor < 0 || factor > 1000) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(null, "Illegal timings!", "Error",
+                JOptionPane.ERROR_MESSAGE);
+
+            return;
+        }
+
+        autoShift.setDelayMillis(delay);
+        autoShift.setRepeatMillis(repeat);
+        autoShift.setSoftDropFactor(factor);
+    }
+
     private static void showHowToPlay() {
         JOptionPane.showMessageDialog(null,
             "Your goal is to earn as many points as possible:\n"
@@ -148,17 +300,58 @@ public class TetrisMenuBar extends JMenuBar {
             JMenuItem source = (JMenuItem)e.getSource();
 
             if (source == newGame) {
-                game.startGame();
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.startGame();
+                    }
+                });
             } else if (source == pause) {
-                game.pauseGame();
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.pauseGame();
+                    }
+                });
+            } else if (source == saveReplay) {
+                saveReplay();
+            } else if (source == openReplay) {
+                openReplay();
+            } else if (source == saveLatencies) {
+                saveLatencies();
             } else if (source == quit) {
                 System.exit(0);
             } else if (source == rotateClockwise) {
-                game.setRotateClockwise(rotateClockwise.isSelected());
+                final boolean selected = rotateClockwise.isSelected();
+
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.setRotateClockwise(selected);
+                    }
+                });
             } else if (source == moveAfterDrop) {
-                game.setMoveAfterDrop(moveAfterDrop.isSelected());
+                final boolean selected = moveAfterDrop.isSelected();
+
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.setMoveAfterDrop(selected);
+                    }
+                });
             } else if (source == displayShadow) {
-                game.setDisplayShadow(displayShadow.isSelected());
+                final boolean selected = displayShadow.isSelected();
+
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.setDisplayShadow(selected);
+                    }
+                });
+            } else if (source == botPlayer) {
+                engine.setBotEnabled(botPlayer.isSelected());
+            } else if (source == latencyOverlay) {
+                view.setLatencyShown(latencyOverlay.isSelected());
             } else if (source == customInitialLevel) {
                 int initialLevel = 0;
 
@@ -178,20 +371,31 @@ public class TetrisMenuBar extends JMenuBar {
                     return;
                 }
 
-                game.setInitialLevel(initialLevel);
+                final int level = initialLevel;
+
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.setInitialLevel(level);
+                    }
+                });
             } else if (source == customSize) {
                 int rows = 0, cols = 0;
 
                 try {
                     cols =
-                        Integer.parseInt(JOptionPane
-                            .showInputDialog("Width (4-50):"));
+                        Integer.parseInt(JOptionPane.showInputDialog("Width ("
+                            + TetrisGame.SMALL_GRID_SIZE + "-"
+                            + TetrisGame.MAX_BASKET_COLS + "):"));
                     rows =
-                        Integer.parseInt(JOptionPane
-                            .showInputDialog("Height (4-50):"));
-
-                    if (rows < TetrisGame.SMALL_GRID_SIZE || rows > 50
-                        || cols < TetrisGame.SMALL_GRID_SIZE || cols > 50) {
+                        Integer.parseInt(JOptionPane.showInputDialog("Height ("
+                            + TetrisGame.SMALL_GRID_SIZE + "-"
+                            + TetrisGame.MAX_BASKET_ROWS + "):"));
+
+                    if (rows < TetrisGame.SMALL_GRID_SIZE
+                        || rows > TetrisGame.MAX_BASKET_ROWS
+                        || cols < TetrisGame.SMALL_GRID_SIZE
+                        || cols > TetrisGame.MAX_BASKET_COLS) {
                         throw new NumberFormatException();
                     }
                 } catch (NumberFormatException ex) {
@@ -201,15 +405,21 @@ public class TetrisMenuBar extends JMenuBar {
                     return;
                 }
 
-                game.setBasketSize(rows, cols);
+                final int numRows = rows, numCols = cols;
+
+                engine.update(new Runnable() {
+                    @Override
+                    public void run() {
+                        game.setBasketSize(numCols, numRows);
+                    }
+                });
+            } else if (source == keyTimings) {
+                setKeyTimings();
             } else if (source == howToPlay) {
                 showHowToPlay();
             } else if (source == about) {
                 showAbout();
             }
-
-            // Repaint the panel to reflect any changes
-            panel.repaint();
         }
     }
 }
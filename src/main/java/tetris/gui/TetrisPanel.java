@@ -1,157 +1,201 @@
 package tetris.gui;
 
-import java.awt.Color;
-import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.EnumMap;
+import java.awt.Rectangle;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JPanel;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
-import tetris.game.TetrisGame;
-import tetris.game.TetrisGame.GameState;
-import tetris.game.TetrisGrid.SquareType;
+import tetris.game.GameSnapshot;
+import tetris.game.SnapshotBuffer;
+import tetris.game.TetrisGrid;
+import tetris.jfr.PaintEvent;
+import tetris.metrics.TetrisMetrics;
 
-public class TetrisPanel extends JPanel {
-    private static final int GAP = 1;
+public class TetrisPanel extends JPanel implements TetrisView {
+    private TetrisEngine engine;
 
-    private static final EnumMap<SquareType, Color> COLORS;
+    private SnapshotBuffer snapshots;
 
-    private TetrisGame game;
+    // What was last painted, owned by the event dispatch thread
+    private GameSnapshot shown;
 
-    private Timer timer;
+    // Set from when the engine publishes until the snapshot is taken
+    private AtomicBoolean refreshPending;
 
-    private int squareWidth, basketWidth, basketHeight, smallDimension;
+    private Runnable refreshTask;
 
-    static {
-        COLORS = new EnumMap<SquareType, Color>(SquareType.class);
-        COLORS.put(SquareType.I, new Color(0, 230, 230));
-        COLORS.put(SquareType.J, new Color(0, 0, 230));
-        COLORS.put(SquareType.L, new Color(250, 167, 0));
-        COLORS.put(SquareType.O, new Color(250, 250, 0));
-        COLORS.put(SquareType.S, new Color(0, 230, 0));
-        COLORS.put(SquareType.T, new Color(115, 0, 230));
-        COLORS.put(SquareType.Z, new Color(230, 0, 0));
-        COLORS.put(SquareType.EMPTY, Color.WHITE);
-        COLORS.put(SquareType.SHADOW, Color.LIGHT_GRAY);
-    }
+    private LatencyTracker latency;
+
+    private TetrisMetrics metrics;
+
+    private boolean latencyShown;
+
+    private TetrisRenderer renderer;
+
+    private Rectangle statsBounds, overlayBounds;
+
+    private char[] latencyText;
 
     public TetrisPanel() {
         // Call the super constructor with true in order to double buffer
         super(true);
+        setBackground(TetrisRenderer.BACKGROUND);
+
+        renderer = new TetrisRenderer();
+        statsBounds = new Rectangle();
+        overlayBounds = new Rectangle();
+        latencyText = new char[64];
+
+        engine = new TetrisEngine();
+        snapshots = engine.getSnapshots();
+        latency = engine.getLatencyTracker();
+        metrics = engine.getMetrics();
+
+        shown = new GameSnapshot();
+        shown.capture(engine.getGame());
 
-        timer = new Timer(1000, new ActionListener() {
+        refreshPending = new AtomicBoolean();
+
+        refreshTask = new Runnable() {
+            @Override
+            public void run() {
+                refreshPending.set(false);
+                refresh();
+            }
+        };
+
+        // Called on the engine thread, which must never wait for painting
+        engine.setPublishListener(new Runnable() {
             @Override
-            public void actionPerformed(ActionEvent e) {
-                game.moveTetrominoDownTimer();
-                repaint();
+            public void run() {
+                if (!refreshPending.getAndSet(true)) {
+                    SwingUtilities.invokeLater(refreshTask);
+                }
             }
         });
+    }
 
-        game = new TetrisGame(timer);
+    @Override
+    public TetrisEngine getEngine() {
+        return engine;
     }
 
-    public TetrisGame getGame() {
-        return game;
+    @Override
+    public void setLatencyShown(boolean latencyShown) {
+        this.latencyShown = latencyShown;
+        repaint();
     }
 
     @Override
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        setBackground(new Color(0xEEEEEE));
-
-        // Define the constants relative to the bounds of this panel
-        squareWidth =
-            Math.min((int)((getWidth() - (game.getBasketGrid().getNumCols()
-                + game.getNextGrid().getNumCols()
-                + game.getHoldGrid().getNumCols() + 3)
-                * GAP) / (game.getBasketGrid().getNumCols()
-                + game.getNextGrid().getNumCols()
-                + game.getHoldGrid().getNumCols() + 4.5)), (getHeight() - (game
-                .getBasketGrid().getNumRows() - 1) * GAP)
-                / (game.getBasketGrid().getNumRows()));
-        basketWidth =
-            game.getBasketGrid().getNumCols() * (squareWidth + GAP) + GAP;
-        basketHeight =
-            (game.getBasketGrid().getNumRows() - 2) * (squareWidth + GAP) + GAP;
-        smallDimension =
-            game.getNextGrid().getNumCols() * (squareWidth + GAP) + GAP;
-
-        // Translate the origin to the top left corner
-        g.translate(
-            (getWidth() - (basketWidth + 5 * squareWidth / 2 + 2 * smallDimension)) / 2,
-            (getHeight() - basketHeight) / 2);
-
-        // Paint the rectangles around the basket and next areas
-        g.setColor(Color.LIGHT_GRAY);
-        g.drawRect(smallDimension + 5 * squareWidth / 4, 0, basketWidth - 1,
-            basketHeight - 1);
-        g.drawRect(smallDimension + basketWidth + 5 * squareWidth / 2, 0,
-            smallDimension - 1, smallDimension - 1);
-        g.drawRect(0, 0, smallDimension - 1, smallDimension - 1);
-
-        // Paint each of the squares of the hold grid
-        for (int col = 0; col < game.getHoldGrid().getNumCols(); ++col) {
-            for (int row = 0; row < game.getHoldGrid().getNumRows(); ++row) {
-                paintSquare(g, game.getHoldGrid().get(col, row), col
-                    * (squareWidth + GAP) + GAP, (game.getHoldGrid()
-                    .getNumRows() - row - 1)
-                    * (squareWidth + GAP) + GAP);
-            }
+    public void addNotify() {
+        super.addNotify();
+        engine.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        engine.stop();
+        super.removeNotify();
+    }
+
+    public boolean refresh() {
+        if (!snapshots.acquire()) {
+            return false;
         }
 
-        // Paint each of the squares of the basket grid
-        for (int col = 0; col < game.getBasketGrid().getNumCols(); ++col) {
-            for (int row = 0; row < game.getBasketGrid().getNumRows() - 2; ++row) {
-                paintSquare(g, game.getBasketGrid().get(col, row),
-                    smallDimension + 5 * squareWidth / 4 + col
-                        * (squareWidth + GAP) + GAP, (game.getBasketGrid()
-                        .getNumRows() - row - 3)
-                        * (squareWidth + GAP) + GAP);
+        GameSnapshot front = snapshots.getFront();
+        boolean changed = true;
+
+        // Repaint everything if the layout, the size of a grid, the shadow
+        // option, or the window onto a large basket changed
+        if (!renderer.isLaidOut(front, getWidth(), getHeight())
+            || !renderer.isLaidOut(shown, getWidth(), getHeight())
+            || front.isDisplayShadow() != shown.isDisplayShadow()
+            || front.getViewCol() != shown.getViewCol()
+            || front.getViewRow() != shown.getViewRow()) {
+            repaint();
+        } else {
+            // Otherwise repaint only the squares that differ from the last
+            // snapshot, however many the engine published in between
+            changed =
+                repaintChanges(shown.getHoldGrid(), front.getHoldGrid(),
+                    renderer.getHoldX(), front.getHoldGrid().getNumRows());
+            changed |=
+                repaintChanges(shown.getBasketGrid(), front.getBasketGrid(),
+                    renderer.getBasketX(), front.getBasketGrid()
+                        .getNumRows() - 2);
+            changed |=
+                repaintChanges(shown.getNextGrid(), front.getNextGrid(),
+                    renderer.getNextX(), front.getNextGrid().getNumRows());
+
+            // Repaint the statistics below the hold grid if they changed
+            if (front.getScore() != shown.getScore()
+                || front.getLines() != shown.getLines()
+                || front.getLevel() != shown.getLevel()
+                || front.getState() != shown.getState()) {
+                repaint(renderer.getStatsBounds(statsBounds));
+                changed = true;
             }
-        }
 
-        // Paint each of the squares of the next grid
-        for (int col = 0; col < game.getNextGrid().getNumCols(); ++col) {
-            for (int row = 0; row < game.getNextGrid().getNumRows(); ++row) {
-                paintSquare(g, game.getNextGrid().get(col, row), smallDimension
-                    + basketWidth + 5 * squareWidth / 2 + col
-                    * (squareWidth + GAP) + GAP, (game.getNextGrid()
-                    .getNumRows() - row - 1)
-                    * (squareWidth + GAP) + GAP);
+            // Keep the overlay up to date with every frame
+            if (changed && latencyShown) {
+                repaint(renderer.getOverlayBounds(overlayBounds, 0));
             }
         }
 
-        // Translate the origin to the top left corner of the statistics
-        g.translate(0, smallDimension + 7 * (squareWidth + GAP) / 4);
+        // Paint from a copy, so that the engine can reuse the snapshot
+        shown.copyFrom(front);
+
+        return changed;
+    }
 
-        // Set the text color and size
-        g.setColor(Color.BLACK);
-        g.setFont(new Font("Arial", 0, (squareWidth + GAP) / 2 + 3));
+    @Override
+    public void paintComponent(Graphics g) {
+        long start = System.nanoTime();
 
-        // Translate the origin to the top left corner of the basic info
+        // Recorded only while a flight recording has the event enabled
+        PaintEvent event = new PaintEvent();
+        event.begin();
 
-        // Paint the score, the number of lines removed, and the level
-        g.drawString("Score: " + game.getScore(), 0, 0);
-        g.drawString("Lines: " + game.getLines(), 0,
-            3 * (squareWidth + GAP) / 2);
-        g.drawString("Level: " + game.getLevel(), 0, 3 * (squareWidth + GAP));
+        // The background image covers the whole panel, so there is no need
+        // to clear it first
+        renderer.layOut(shown, getWidth(), getHeight(),
+            getGraphicsConfiguration());
+        renderer.paint(g, shown);
 
-        // Paint "Paused" or "Game Over" if necessary
-        if (game.getState() != GameState.ON) {
-            g.setColor(Color.RED);
+        if (latencyShown) {
+            renderer.paintOverlay(g, latencyText, latency.format(latencyText,
+                0), 0);
+        }
 
-            g.drawString(game.getState() == GameState.PAUSED ? "Paused"
-                : "Game Over", 0, 9 * (squareWidth + GAP) / 2);
+        if (event.shouldCommit()) {
+            event.cells = renderer.getCellsPainted();
+            event.commit();
         }
+
+        long end = System.nanoTime();
+        latency.painted(end, shown.getVersion());
+        metrics.framePainted(end - start);
     }
 
-    private void paintSquare(Graphics g, SquareType type, int x, int y) {
-        // Paint shadow squares only if the shadow option is selected
-        g.setColor(COLORS.get(type != SquareType.SHADOW
-            || game.isDisplayShadow() ? type : SquareType.EMPTY));
-        g.fillRect(x, y, squareWidth, squareWidth);
+    private boolean repaintChanges(TetrisGrid oldGrid, TetrisGrid newGrid,
+            int x, int visibleRows) {
+        int squareWidth = renderer.getSquareWidth();
+        boolean changed = false;
+
+        // Rows above the visible part of the basket are never painted
+        for (int col = 0; col < newGrid.getNumCols(); ++col) {
+            for (int row = 0; row < visibleRows; ++row) {
+                if (newGrid.get(col, row) != oldGrid.get(col, row)) {
+                    repaint(renderer.getSquareX(x, col), renderer.getSquareY(
+                        visibleRows, row), squareWidth, squareWidth);
+                    changed = true;
+                }
+            }
+        }
+
+        return changed;
     }
 }
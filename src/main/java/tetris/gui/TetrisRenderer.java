@@ -0,0 +1,330 @@
+package tetris.gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import tetris.game.GameSnapshot;
+import tetris.game.TetrisGame.GameState;
+import tetris.game.TetrisGrid;
+import tetris.game.TetrisGrid.SquareType;
+
+public class TetrisRenderer {
+    public static final Color BACKGROUND = new Color(0xEEEEEE);
+
+    private static final int GAP = 1, OVERLAY_LINE = 14, OVERLAY_GAP = 4;
+
+    private static final Font OVERLAY_FONT = new Font("Monospaced",
+        Font.PLAIN, 12);
+
+    private static final Color[] COLORS;
+
+    private static final char[] SCORE = "Score: ".toCharArray(),
+            LINES = "Lines: ".toCharArray(), LEVEL = "Level: ".toCharArray();
+
+    // One pre-rendered tile per square type, indexed by ordinal
+    private final BufferedImage[] tiles;
+
+    // Everything that only changes with the layout, empty squares included
+    private BufferedImage background;
+
+    private Font font;
+
+    private final Rectangle clip;
+
+    private final char[] text;
+
+    private int width, height, basketCols, basketRows, smallCols, smallRows;
+
+    private int squareWidth, basketWidth, basketHeight, smallDimension,
+            originX, originY;
+
+    private int cellsPainted;
+
+    static {
+        COLORS = new Color[SquareType.values().length];
+        COLORS[SquareType.I.ordinal()] = new Color(0, 230, 230);
+        COLORS[SquareType.J.ordinal()] = new Color(0, 0, 230);
+        COLORS[SquareType.L.ordinal()] = new Color(250, 167, 0);
+        COLORS[SquareType.O.ordinal()] = new Color(250, 250, 0);
+        COLORS[SquareType.S.ordinal()] = new Color(0, 230, 0);
+        COLORS[SquareType.T.ordinal()] = new Color(115, 0, 230);
+        COLORS[SquareType.Z.ordinal()] = new Color(230, 0, 0);
+        COLORS[SquareType.EMPTY.ordinal()] = Color.WHITE;
+        COLORS[SquareType.SHADOW.ordinal()] = Color.LIGHT_GRAY;
+    }
+
+    public TetrisRenderer() {
+        tiles = new BufferedImage[COLORS.length];
+        clip = new Rectangle();
+        text = new char[32];
+        width = height = -1;
+    }
+
+    public boolean isLaidOut(GameSnapshot snapshot, int width, int height) {
+        TetrisGrid basketGrid = snapshot.getBasketGrid();
+
+        return width == this.width && height == this.height
+            && basketGrid.getNumCols() == basketCols
+            && basketGrid.getNumRows() == basketRows
+            && snapshot.getNextGrid().getNumCols() == smallCols
+            && snapshot.getNextGrid().getNumRows() == smallRows;
+    }
+
+    public int getCellsPainted() {
+        return cellsPainted;
+    }
+
+    public int getSquareWidth() {
+        return squareWidth;
+    }
+
+    public int getHoldX() {
+        return originX;
+    }
+
+    public int getBasketX() {
+        return originX + smallDimension + 5 * squareWidth / 4;
+    }
+
+    public int getNextX() {
+        return originX + smallDimension + basketWidth + 5 * squareWidth / 2;
+    }
+
+    public int getSquareX(int gridX, int col) {
+        return gridX + col * (squareWidth + GAP) + GAP;
+    }
+
+    public int getSquareY(int visibleRows, int row) {
+        return originY + (visibleRows - row - 1) * (squareWidth + GAP) + GAP;
+    }
+
+    public Rectangle getStatsBounds(Rectangle bounds) {
+        // The column below the hold grid, up to the basket
+        bounds.setBounds(originX, originY + smallDimension, smallDimension + 5
+            * squareWidth / 4, height - originY - smallDimension);
+
+        return bounds;
+    }
+
+    public void layOut(GameSnapshot snapshot, int width, int height,
+            GraphicsConfiguration config) {
+        if (isLaidOut(snapshot, width, height)) {
+            return;
+        }
+
+        TetrisGrid basketGrid = snapshot.getBasketGrid();
+
+        this.width = width;
+        this.height = height;
+        basketCols = basketGrid.getNumCols();
+        basketRows = basketGrid.getNumRows();
+        smallCols = snapshot.getNextGrid().getNumCols();
+        smallRows = snapshot.getNextGrid().getNumRows();
+
+        int allCols =
+            basketCols + smallCols + snapshot.getHoldGrid().getNumCols();
+
+        // Define the constants relative to the given bounds
+        squareWidth =
+            Math.max(1, Math.min((int)((width - (allCols + 3) * GAP)
+                / (allCols + 4.5)),
+                (height - (basketRows - 1) * GAP) / basketRows));
+        basketWidth = basketCols * (squareWidth + GAP) + GAP;
+        basketHeight = (basketRows - 2) * (squareWidth + GAP) + GAP;
+        smallDimension = smallCols * (squareWidth + GAP) + GAP;
+        originX =
+            (width - (basketWidth + 5 * squareWidth / 2 + 2 * smallDimension))
+                / 2;
+        originY = (height - basketHeight) / 2;
+
+        font = new Font("Arial", Font.PLAIN, (squareWidth + GAP) / 2 + 3);
+
+        // Tiles and background are regenerated only when the layout changes
+        for (int i = 0; i < tiles.length; ++i) {
+            tiles[i] = createImage(config, squareWidth, squareWidth);
+
+            Graphics g = tiles[i].getGraphics();
+            g.setColor(COLORS[i]);
+            g.fillRect(0, 0, squareWidth, squareWidth);
+            g.dispose();
+        }
+
+        background = createImage(config, Math.max(1, width), Math.max(1,
+            height));
+
+        Graphics g = background.getGraphics();
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, width, height);
+
+        // Paint the rectangles around the basket and next areas
+        g.setColor(Color.LIGHT_GRAY);
+        g.drawRect(getBasketX(), originY, basketWidth - 1, basketHeight - 1);
+        g.drawRect(getNextX(), originY, smallDimension - 1,
+            smallDimension - 1);
+        g.drawRect(getHoldX(), originY, smallDimension - 1,
+            smallDimension - 1);
+
+        // Paint the empty squares, so that only others need painting later
+        paintEmptySquares(g, getHoldX(), smallCols, smallRows);
+        paintEmptySquares(g, getBasketX(), basketCols, basketRows - 2);
+        paintEmptySquares(g, getNextX(), smallCols, smallRows);
+
+        g.dispose();
+    }
+
+    public void paint(Graphics g, GameSnapshot snapshot) {
+        // Without a clip the given bounds are left alone, so start with all
+        clip.setBounds(0, 0, width, height);
+        g.getClipBounds(clip);
+
+        g.drawImage(background, 0, 0, null);
+        cellsPainted = 0;
+
+        // Paint the squares of the hold, basket, and next grids
+        boolean shadow = snapshot.isDisplayShadow();
+
+        paintGrid(g, shadow, snapshot.getHoldGrid(), getHoldX(), snapshot
+            .getHoldGrid().getNumRows());
+        paintGrid(g, shadow, snapshot.getBasketGrid(), getBasketX(), snapshot
+            .getBasketGrid().getNumRows() - 2);
+        paintGrid(g, shadow, snapshot.getNextGrid(), getNextX(), snapshot
+            .getNextGrid().getNumRows());
+
+        // Paint the score, the number of lines removed, and the level
+        int x = originX, y = originY + smallDimension + 7 * (squareWidth + GAP)
+            / 4;
+
+        g.setColor(Color.BLACK);
+        g.setFont(font);
+
+        paintStat(g, SCORE, snapshot.getScore(), x, y);
+        paintStat(g, LINES, snapshot.getLines(), x, y + 3
+            * (squareWidth + GAP) / 2);
+        paintStat(g, LEVEL, snapshot.getLevel(), x, y + 3
+            * (squareWidth + GAP));
+
+        // Paint "Paused" or "Game Over" if necessary
+        if (snapshot.getState() != GameState.ON) {
+            g.setColor(Color.RED);
+
+            g.drawString(snapshot.getState() == GameState.PAUSED ? "Paused"
+                : "Game Over", x, y + 9 * (squareWidth + GAP) / 2);
+        }
+    }
+
+    private void paintEmptySquares(Graphics g, int gridX, int cols,
+            int visibleRows) {
+        g.setColor(COLORS[SquareType.EMPTY.ordinal()]);
+
+        for (int col = 0; col < cols; ++col) {
+            for (int row = 0; row < visibleRows; ++row) {
+                g.fillRect(getSquareX(gridX, col), getSquareY(visibleRows, row),
+                    squareWidth, squareWidth);
+            }
+        }
+    }
+
+    private void paintGrid(Graphics g, boolean shadow, TetrisGrid grid,
+            int gridX, int visibleRows) {
+        int step = squareWidth + GAP;
+
+        // Visit only the squares within the clip
+        int minCol = Math.max(0, (clip.x - gridX - GAP) / step);
+        int maxCol =
+            Math.min(grid.getNumCols() - 1, (clip.x + clip.width - gridX)
+                / step);
+        int minRow =
+            Math.max(0, visibleRows - 1 - (clip.y + clip.height - originY)
+                / step);
+        int maxRow =
+            Math.min(visibleRows - 1, visibleRows - 1 - (clip.y - originY - GAP)
+                / step);
+
+        for (int col = minCol; col <= maxCol; ++col) {
+            for (int row = minRow; row <= maxRow; ++row) {
+                SquareType type = grid.get(col, row);
+
+                // Empty squares are part of the background, as are shadow
+                // squares if the shadow option is not selected
+                if (type != SquareType.EMPTY
+                    && (type != SquareType.SHADOW || shadow)) {
+                    g.drawImage(tiles[type.ordinal()], getSquareX(gridX, col),
+                        getSquareY(visibleRows, row), null);
+                    ++cellsPainted;
+                }
+            }
+        }
+    }
+
+    private void paintStat(Graphics g, char[] label, int value, int x, int y) {
+        System.arraycopy(label, 0, text, 0, label.length);
+        g.drawChars(text, 0, appendInt(text, label.length, value), x, y);
+    }
+
+    public void paintOverlay(Graphics g, char[] text, int length, int line) {
+        g.setColor(Color.GRAY);
+        g.setFont(OVERLAY_FONT);
+        g.drawChars(text, 0, length, OVERLAY_GAP, (line + 1) * OVERLAY_LINE);
+    }
+
+    public Rectangle getOverlayBounds(Rectangle bounds, int line) {
+        bounds.setBounds(0, line * OVERLAY_LINE, width, OVERLAY_LINE
+            + OVERLAY_GAP);
+
+        return bounds;
+    }
+
+    static int append(char[] text, int length, char[] suffix) {
+        System.arraycopy(suffix, 0, text, length, suffix.length);
+
+        return length + suffix.length;
+    }
+
+    static int appendMillis(char[] text, int length, long nanos) {
+        // Milliseconds with one decimal
+        int tenths = (int)Math.min(nanos / 100000, Integer.MAX_VALUE / 10);
+        length = appendInt(text, length, tenths / 10);
+        text[length++] = '.';
+
+        return appendInt(text, length, tenths % 10);
+    }
+
+    static int appendInt(char[] text, int length, int value) {
+        // Append the digits without building a string
+        int start = length;
+
+        if (value < 0) {
+            text[length++] = '-';
+            ++start;
+        }
+
+        do {
+            text[length++] = (char)('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        for (int i = start, j = length - 1; i < j; ++i, --j) {
+            char swap = text[i];
+            text[i] = text[j];
+            text[j] = swap;
+        }
+
+        return length;
+    }
+
+    private static BufferedImage createImage(GraphicsConfiguration config,
+            int width, int height) {
+        // Compatible images can be accelerated by the display
+        if (config != null) {
+            return config.createCompatibleImage(width, height,
+                Transparency.OPAQUE);
+        }
+
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+}
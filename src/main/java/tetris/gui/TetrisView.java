@@ -0,0 +1,8 @@
+package tetris.gui;
+
+public interface TetrisView {
+    // The game runs on the thread of the engine, never on the view's
+    TetrisEngine getEngine();
+
+    void setLatencyShown(boolean latencyShown);
+}
@@ -0,0 +1,44 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("tetris.GameOver")
+@Label("Game Over")
+@Category({"Tetris", "Game"})
+@Description("A game ended")
+public class GameOverEvent extends Event {
+    @Label("Score")
+    public int score;
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Pieces Locked")
+    public int pieces;
+
+    @Label("Game Time")
+    @Timespan(Timespan.MILLISECONDS)
+    public long time;
+
+    public static void emit(int score, int lines, int level, int pieces,
+            long time) {
+        GameOverEvent event = new GameOverEvent();
+
+        if (event.isEnabled()) {
+            event.score = score;
+            event.lines = lines;
+            event.level = level;
+            event.pieces = pieces;
+            event.time = time;
+            event.commit();
+        }
+    }
+}
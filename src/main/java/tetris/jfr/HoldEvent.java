@@ -0,0 +1,30 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("tetris.Hold")
+@Label("Hold")
+@Category({"Tetris", "Game"})
+@Description("The current tetromino was put on hold")
+public class HoldEvent extends Event {
+    @Label("Held Type")
+    public String type;
+
+    // Null when nothing was held before
+    @Label("Released Type")
+    public String releasedType;
+
+    public static void emit(String type, String releasedType) {
+        HoldEvent event = new HoldEvent();
+
+        if (event.isEnabled()) {
+            event.type = type;
+            event.releasedType = releasedType;
+            event.commit();
+        }
+    }
+}
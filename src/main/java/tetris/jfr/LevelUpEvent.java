@@ -0,0 +1,31 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("tetris.LevelUp")
+@Label("Level Up")
+@Category({"Tetris", "Game"})
+@Description("The level went up, and with it the speed of gravity")
+public class LevelUpEvent extends Event {
+    @Label("Level")
+    public int level;
+
+    @Label("Gravity Delay")
+    @Timespan(Timespan.MILLISECONDS)
+    public long gravityDelay;
+
+    public static void emit(int level, long gravityDelay) {
+        LevelUpEvent event = new LevelUpEvent();
+
+        if (event.isEnabled()) {
+            event.level = level;
+            event.gravityDelay = gravityDelay;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("tetris.LineClear")
+@Label("Line Clear")
+@Category({"Tetris", "Game"})
+@Description("Full rows were removed from the basket")
+public class LineClearEvent extends Event {
+    @Label("Lines Cleared")
+    public int count;
+
+    @Label("Total Lines")
+    public int lines;
+
+    @Label("Score")
+    public int score;
+
+    public static void emit(int count, int lines, int score) {
+        LineClearEvent event = new LineClearEvent();
+
+        if (event.isEnabled()) {
+            event.count = count;
+            event.lines = lines;
+            event.score = score;
+            event.commit();
+        }
+    }
+}
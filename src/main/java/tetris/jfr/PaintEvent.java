@@ -0,0 +1,18 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("tetris.Paint")
+@Label("Paint")
+@Category({"Tetris", "Rendering"})
+@Description("A frame, or part of one, was painted")
+public class PaintEvent extends Event {
+    // Squares drawn over the background, so a partial repaint counts only
+    // the squares within its clip
+    @Label("Cells Painted")
+    public int cells;
+}
@@ -0,0 +1,42 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("tetris.PieceLock")
+@Label("Piece Lock")
+@Category({"Tetris", "Game"})
+@Description("A tetromino locked into the basket")
+public class PieceLockEvent extends Event {
+    @Label("Type")
+    public String type;
+
+    @Label("Column")
+    public int col;
+
+    @Label("Row")
+    public int row;
+
+    @Label("Rotation")
+    public int rotation;
+
+    @Label("Pieces Locked")
+    public int pieces;
+
+    public static void emit(String type, int col, int row, int rotation,
+            int pieces) {
+        PieceLockEvent event = new PieceLockEvent();
+
+        if (event.isEnabled()) {
+            event.type = type;
+            event.col = col;
+            event.row = row;
+            event.rotation = rotation;
+            event.pieces = pieces;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package tetris.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("tetris.PieceSpawn")
+@Label("Piece Spawn")
+@Category({"Tetris", "Game"})
+@Description("A tetromino entered the basket")
+public class PieceSpawnEvent extends Event {
+    @Label("Type")
+    public String type;
+
+    @Label("Pieces Locked")
+    public int pieces;
+
+    public static void emit(String type, int pieces) {
+        PieceSpawnEvent event = new PieceSpawnEvent();
+
+        // Nothing is filled in unless a recording asks for the event
+        if (event.isEnabled()) {
+            event.type = type;
+            event.pieces = pieces;
+            event.commit();
+        }
+    }
+}
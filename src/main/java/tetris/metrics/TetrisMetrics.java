@@ -0,0 +1,240 @@
+package tetris.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import tetris.game.TetrisGame;
+import tetris.game.TetrisMonitor;
+
+public class TetrisMetrics implements TetrisMetricsMBean, TetrisMonitor {
+    // Rates cover at least this long, however often they are read
+    private static final long RATE_NANOS = 1000000000L;
+
+    // Counted by many games at once, e.g. in the simulator
+    private final LongAdder locks, lines, lockNanos, removeNanos, frames,
+            paintNanos;
+
+    private final AtomicLong lockMax, removeMax, paintMax;
+
+    private volatile int gravityDelay;
+
+    // The last complete window of the rates, updated when they are read
+    private long rateStart, rateLocks, rateLines, rateAllocated;
+
+    private double piecesPerSecond, linesPerMinute, allocatedPerSecond,
+            allocatedPerPiece;
+
+    public TetrisMetrics() {
+        locks = new LongAdder();
+        lines = new LongAdder();
+        lockNanos = new LongAdder();
+        removeNanos = new LongAdder();
+        frames = new LongAdder();
+        paintNanos = new LongAdder();
+
+        lockMax = new AtomicLong();
+        removeMax = new AtomicLong();
+        paintMax = new AtomicLong();
+
+        reset();
+    }
+
+    public void register(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+            new ObjectName("tetris:type=TetrisMetrics,name=" + name));
+    }
+
+    @Override
+    public void pieceLocked(TetrisGame game, int linesCleared,
+            long lockNanos, long removeNanos) {
+        locks.increment();
+        lines.add(linesCleared);
+        this.lockNanos.add(lockNanos);
+        this.removeNanos.add(removeNanos);
+
+        updateMax(lockMax, lockNanos);
+        updateMax(removeMax, removeNanos);
+
+        gravityDelay = game.getGravityDelay();
+    }
+
+    public void framePainted(long nanos) {
+        frames.increment();
+        paintNanos.add(nanos);
+
+        updateMax(paintMax, nanos);
+    }
+
+    @Override
+    public long getLocks() {
+        return locks.sum();
+    }
+
+    @Override
+    public long getLines() {
+        return lines.sum();
+    }
+
+    @Override
+    public synchronized double getPiecesPerSecond() {
+        updateRates();
+
+        return piecesPerSecond;
+    }
+
+    @Override
+    public synchronized double getLinesPerMinute() {
+        updateRates();
+
+        return linesPerMinute;
+    }
+
+    @Override
+    public int getGravityDelay() {
+        return gravityDelay;
+    }
+
+    @Override
+    public double getLockAverageNanos() {
+        return getAverage(lockNanos, locks);
+    }
+
+    @Override
+    public long getLockMaxNanos() {
+        return lockMax.get();
+    }
+
+    @Override
+    public double getRemoveLinesAverageNanos() {
+        return getAverage(removeNanos, locks);
+    }
+
+    @Override
+    public long getRemoveLinesMaxNanos() {
+        return removeMax.get();
+    }
+
+    @Override
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    @Override
+    public double getPaintAverageNanos() {
+        return getAverage(paintNanos, frames);
+    }
+
+    @Override
+    public long getPaintMaxNanos() {
+        return paintMax.get();
+    }
+
+    @Override
+    public synchronized double getAllocatedBytesPerSecond() {
+        updateRates();
+
+        return allocatedPerSecond;
+    }
+
+    @Override
+    public synchronized double getAllocatedBytesPerPiece() {
+        updateRates();
+
+        return allocatedPerPiece;
+    }
+
+    @Override
+    public synchronized void reset() {
+        locks.reset();
+        lines.reset();
+        lockNanos.reset();
+        removeNanos.reset();
+        frames.reset();
+        paintNanos.reset();
+
+        lockMax.set(0);
+        removeMax.set(0);
+        paintMax.set(0);
+
+        rateStart = System.nanoTime();
+        rateLocks = rateLines = 0;
+        rateAllocated = getAllocatedBytes();
+        piecesPerSecond = linesPerMinute = 0;
+        allocatedPerSecond = allocatedPerPiece = -1;
+    }
+
+    private void updateRates() {
+        long now = System.nanoTime();
+
+        if (now - rateStart < RATE_NANOS) {
+            return;
+        }
+
+        double seconds = (now - rateStart) / 1e9;
+        long locks = this.locks.sum(), lines = this.lines.sum();
+        long allocated = getAllocatedBytes();
+
+        piecesPerSecond = (locks - rateLocks) / seconds;
+        linesPerMinute = (lines - rateLines) * 60 / seconds;
+
+        // Threads that ended take their allocations with them, so this is
+        // only an estimate, and never negative
+        if (allocated >= 0 && rateAllocated >= 0) {
+            long bytes = Math.max(0, allocated - rateAllocated);
+
+            allocatedPerSecond = bytes / seconds;
+            allocatedPerPiece =
+                locks > rateLocks ? (double)bytes / (locks - rateLocks) : 0;
+        }
+
+        rateStart = now;
+        rateLocks = locks;
+        rateLines = lines;
+        rateAllocated = allocated;
+    }
+
+    private static double getAverage(LongAdder total, LongAdder count) {
+        long n = count.sum();
+
+        return n == 0 ? 0 : (double)total.sum() / n;
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // Only some virtual machines count the bytes each thread allocates
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean allocations =
+            (com.sun.management.ThreadMXBean)threads;
+
+        if (!allocations.isThreadAllocatedMemorySupported()
+            || !allocations.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        long total = 0;
+
+        for (long bytes : allocations.getThreadAllocatedBytes(threads
+            .getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+
+        return total;
+    }
+}
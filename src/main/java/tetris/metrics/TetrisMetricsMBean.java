@@ -0,0 +1,33 @@
+package tetris.metrics;
+
+public interface TetrisMetricsMBean {
+    long getLocks();
+
+    long getLines();
+
+    double getPiecesPerSecond();
+
+    double getLinesPerMinute();
+
+    int getGravityDelay();
+
+    double getLockAverageNanos();
+
+    long getLockMaxNanos();
+
+    double getRemoveLinesAverageNanos();
+
+    long getRemoveLinesMaxNanos();
+
+    long getFrames();
+
+    double getPaintAverageNanos();
+
+    long getPaintMaxNanos();
+
+    double getAllocatedBytesPerSecond();
+
+    double getAllocatedBytesPerPiece();
+
+    void reset();
+}
@@ -0,0 +1,66 @@
+package tetris.replay;
+
+import tetris.game.TetrisGame;
+import tetris.game.TypeRandomizer;
+
+public class ReplayPlayer {
+    private TetrisGame game;
+
+    private ReplayReader reader;
+
+    private long actions;
+
+    private boolean pending;
+
+    public ReplayPlayer() {
+        actions = 0;
+        pending = false;
+    }
+
+    public TetrisGame getGame() {
+        return game;
+    }
+
+    public long getActions() {
+        return actions;
+    }
+
+    public void start(TetrisGame game, ReplayReader reader) {
+        this.game = game;
+        this.reader = reader;
+
+        // Only replace what differs, so that replaying many games is cheap
+        String randomizerName = reader.getRandomizerName();
+
+        if (!game.getRandomizer().getName().equals(randomizerName)) {
+            game.setRandomizer(TypeRandomizer.forName(randomizerName));
+        }
+
+        if (game.getBasketGrid().getNumCols() != reader.getNumCols()
+            || game.getBasketGrid().getNumRows() - 2 != reader.getNumRows()) {
+            game.setBasketSize(reader.getNumCols(), reader.getNumRows());
+        }
+
+        game.setInitialLevel(reader.getInitialLevel());
+        game.setSeed(reader.getSeed());
+        game.startGame();
+
+        pending = reader.nextAction();
+    }
+
+    public boolean advanceTo(long time) {
+        // Gravity is part of the replay, so the game's clock is not used
+        while (pending && reader.getTime() <= time) {
+            game.perform(reader.getAction());
+            ++actions;
+
+            pending = reader.nextAction();
+        }
+
+        return pending;
+    }
+
+    public void finish() {
+        advanceTo(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,166 @@
+package tetris.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import tetris.game.Action;
+
+public class ReplayReader {
+    // "TRP1", at the start of every replay
+    static final int MAGIC = 0x54525031;
+
+    // Each event is a varint of the time delta and a code in the low bits
+    static final int CODE_BITS = 4, END = (1 << CODE_BITS) - 1;
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final ByteBuffer buffer;
+
+    private String randomizerName;
+
+    private long seed, time;
+
+    private int numCols, numRows, initialLevel, score, lines;
+
+    private Action action;
+
+    private boolean inReplay;
+
+    public ReplayReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        inReplay = false;
+    }
+
+    public static ReplayReader open(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Replay archive too large: " + file);
+            }
+
+            // The mapping stays valid after the file is closed
+            return new ReplayReader(channel.map(FileChannel.MapMode.READ_ONLY,
+                0, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public String getRandomizerName() {
+        return randomizerName;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getInitialLevel() {
+        return initialLevel;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public boolean nextReplay() {
+        // Skip whatever is left of the current replay
+        while (inReplay) {
+            nextAction();
+        }
+
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a replay at "
+                + (buffer.position() - 4));
+        }
+
+        seed = buffer.getLong();
+
+        byte[] name = new byte[(int)readVarLong()];
+        buffer.get(name);
+        randomizerName = new String(name, StandardCharsets.US_ASCII);
+
+        numCols = (int)readVarLong();
+        numRows = (int)readVarLong();
+        initialLevel = (int)readVarLong();
+
+        time = 0;
+        action = null;
+        inReplay = true;
+
+        return true;
+    }
+
+    public boolean nextAction() {
+        if (!inReplay) {
+            return false;
+        }
+
+        long event = readVarLong();
+        int code = (int)event & END;
+
+        // The final score and lines follow the end of the actions
+        if (code == END) {
+            score = (int)readVarLong();
+            lines = (int)readVarLong();
+            action = null;
+            inReplay = false;
+
+            return false;
+        }
+
+        if (code >= ACTIONS.length) {
+            throw new IllegalArgumentException("Unknown action code: " + code);
+        }
+
+        time += event >> CODE_BITS;
+        action = ACTIONS[code];
+
+        return true;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+
+        // Seven bits at a time, least significant first
+        for (int shift = 0;; shift += 7) {
+            byte b = buffer.get();
+            value |= (long)(b & 0x7F) << shift;
+
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package tetris.replay;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import tetris.game.Action;
+import tetris.game.TetrisGame;
+import tetris.game.TetrisListener;
+
+public class ReplayRecorder implements TetrisListener {
+    private TetrisGame game;
+
+    private byte[] buffer;
+
+    private int size;
+
+    private long time;
+
+    public ReplayRecorder() {
+        buffer = new byte[256];
+        size = 0;
+    }
+
+    // Games may be recorded on one thread and saved from another
+    public synchronized boolean hasGame() {
+        return game != null;
+    }
+
+    @Override
+    public synchronized void gameStarted(TetrisGame game) {
+        this.game = game;
+        size = 0;
+        time = game.getTime();
+
+        // Everything needed to start the same game again
+        byte[] name =
+            game.getRandomizer().getName().getBytes(StandardCharsets.US_ASCII);
+
+        writeLong(ReplayReader.MAGIC, 4);
+        writeLong(game.getSeed(), 8);
+        writeVarLong(name.length);
+        ensureCapacity(name.length);
+        System.arraycopy(name, 0, buffer, size, name.length);
+        size += name.length;
+
+        writeVarLong(game.getBasketGrid().getNumCols());
+        writeVarLong(game.getBasketGrid().getNumRows() - 2);
+        writeVarLong(game.getInitialLevel());
+    }
+
+    @Override
+    public synchronized void actionPerformed(TetrisGame game, Action action) {
+        long now = game.getTime();
+
+        writeVarLong((now - time) << ReplayReader.CODE_BITS | action.ordinal());
+        time = now;
+    }
+
+    public synchronized byte[] toByteArray() {
+        if (game == null) {
+            throw new IllegalStateException("No game recorded");
+        }
+
+        // End with the score and lines so far, without ending the recording
+        int recorded = size;
+
+        writeVarLong(ReplayReader.END);
+        writeVarLong(game.getScore());
+        writeVarLong(game.getLines());
+
+        byte[] replay = Arrays.copyOf(buffer, size);
+        size = recorded;
+
+        return replay;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(toByteArray());
+    }
+
+    private void writeLong(long value, int numBytes) {
+        ensureCapacity(numBytes);
+
+        // Big endian, as ByteBuffer reads it
+        for (int i = numBytes - 1; i >= 0; --i) {
+            buffer[size++] = (byte)(value >>> (i * 8));
+        }
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte)(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+
+        buffer[size++] = (byte)value;
+    }
+
+    private void ensureCapacity(int numBytes) {
+        if (size + numBytes > buffer.length) {
+            buffer =
+                Arrays.copyOf(buffer, Math.max(buffer.length * 2, size
+                    + numBytes));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package tetris.replay;
+
+import java.io.File;
+import java.io.IOException;
+
+import tetris.game.ManualClock;
+import tetris.game.TetrisGame;
+
+public class ReplayScanner {
+    private static final String USAGE =
+        "Usage: java -cp tetris.jar tetris.replay.ReplayScanner FILE...";
+
+    private final TetrisGame game;
+
+    private final ReplayPlayer player;
+
+    private long replays, mismatches;
+
+    public ReplayScanner() {
+        // Replays bring their own gravity, so the clock never ticks
+        game = new TetrisGame(new ManualClock());
+        player = new ReplayPlayer();
+        replays = mismatches = 0;
+    }
+
+    public long getReplays() {
+        return replays;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public long getActions() {
+        return player.getActions();
+    }
+
+    public void scan(ReplayReader reader) {
+        while (reader.nextReplay()) {
+            player.start(game, reader);
+            player.finish();
+
+            // The recorded result must come out of the replayed actions
+            if (game.getScore() != reader.getScore()
+                || game.getLines() != reader.getLines()) {
+                ++mismatches;
+            }
+
+            ++replays;
+        }
+    }
+
+    public static void main(String... args) {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        ReplayScanner scanner = new ReplayScanner();
+        long start = System.nanoTime();
+
+        try {
+            for (String arg : args) {
+                scanner.scan(ReplayReader.open(new File(arg)));
+            }
+        } catch (IOException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Replays: %d in %.3f s, %d mismatched%n",
+            scanner.getReplays(), seconds, scanner.getMismatches());
+        System.out.printf("Rate:    %.1f replays/s, %.1f actions/s%n",
+            scanner.getReplays() / seconds, scanner.getActions() / seconds);
+
+        if (scanner.getMismatches() > 0) {
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package tetris.sim;
+
+import java.util.SplittableRandom;
+
+import tetris.game.TetrisGame;
+import tetris.game.TetrisPlayer;
+
+public class RandomPlayer implements TetrisPlayer {
+    private SplittableRandom random;
+
+    public RandomPlayer(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void play(TetrisGame game) {
+        // Press one random key per step, dropping rarely
+        switch (random.nextInt(12)) {
+            case 0:
+            case 1:
+            case 2:
+                game.moveTetrominoLeft();
+                break;
+            case 3:
+            case 4:
+            case 5:
+                game.moveTetrominoRight();
+                break;
+            case 6:
+            case 7:
+                game.rotateTetromino(random.nextBoolean());
+                break;
+            case 8:
+                game.dropTetromino(false);
+                break;
+            case 9:
+                game.holdTetromino();
+                break;
+            case 10:
+                game.moveTetrominoDown();
+                break;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package tetris.sim;
+
+import java.util.concurrent.ForkJoinPool;
+
+import tetris.ai.TetrisBot;
+import tetris.game.HeadlessDriver;
+import tetris.game.TetrisGame;
+
+public class SearchScaling {
+    private static final String USAGE =
+        "Usage: java -cp tetris.jar tetris.sim.SearchScaling"
+            + " [depth=N] [pieces=N] [seed=N] [threads=N]";
+
+    private int depth, maxThreads;
+
+    private long pieces, seed;
+
+    public SearchScaling() {
+        depth = 3;
+        maxThreads = Runtime.getRuntime().availableProcessors();
+        pieces = 100;
+        seed = 0;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public void setPieces(long pieces) {
+        this.pieces = pieces;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long play(int threads, long numPieces) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        try {
+            // Without a budget every search is complete, so any number of
+            // threads plays exactly the same game
+            HeadlessDriver driver = new HeadlessDriver(seed);
+            TetrisGame game = driver.getGame();
+
+            driver.setPlayer(new TetrisBot(0, depth, pool));
+            game.startGame();
+
+            boolean running = true;
+
+            while (running && game.getPieces() < numPieces) {
+                running = driver.step();
+            }
+
+            return game.getLines();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void run() {
+        // Warm up the compiler by playing each game once first
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            play(threads, pieces);
+        }
+
+        double baseSeconds = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long start = System.nanoTime();
+            long lines = play(threads, pieces);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            if (threads == 1) {
+                baseSeconds = seconds;
+            }
+
+            System.out.printf("Threads: %3d, %8.3f s, %8.1f pieces/s,"
+                + " speedup %5.2f, lines %d%n", threads, seconds, pieces
+                / seconds, baseSeconds / seconds, lines);
+        }
+    }
+
+    public static void main(String... args) {
+        SearchScaling scaling = new SearchScaling();
+
+        try {
+            for (String arg : args) {
+                int split = arg.indexOf('=');
+
+                if (split < 0) {
+                    throw new IllegalArgumentException("Illegal option: "
+                        + arg);
+                }
+
+                String name = arg.substring(0, split), value =
+                    arg.substring(split + 1);
+
+                if (name.equals("depth")) {
+                    scaling.setDepth(Integer.parseInt(value));
+                } else if (name.equals("pieces")) {
+                    scaling.setPieces(Long.parseLong(value));
+                } else if (name.equals("seed")) {
+                    scaling.setSeed(Long.parseLong(value));
+                } else if (name.equals("threads")) {
+                    scaling.setMaxThreads(Integer.parseInt(value));
+                } else {
+                    throw new IllegalArgumentException("Unknown option: "
+                        + name);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        scaling.run();
+    }
+}
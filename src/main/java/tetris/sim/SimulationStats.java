@@ -0,0 +1,84 @@
+package tetris.sim;
+
+import tetris.game.TetrisGame;
+
+public class SimulationStats {
+    private long games, pieces, steps, totalScore, totalLines;
+
+    private int minScore, maxScore, minLines, maxLines;
+
+    public SimulationStats() {
+        games = pieces = steps = totalScore = totalLines = 0;
+        minScore = minLines = Integer.MAX_VALUE;
+        maxScore = maxLines = 0;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getPieces() {
+        return pieces;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public long getTotalLines() {
+        return totalLines;
+    }
+
+    public int getMinScore() {
+        return minScore;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public int getMinLines() {
+        return minLines;
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    public double getMeanScore() {
+        return games == 0 ? 0 : (double)totalScore / games;
+    }
+
+    public double getMeanLines() {
+        return games == 0 ? 0 : (double)totalLines / games;
+    }
+
+    public void addGame(TetrisGame game, long gameSteps) {
+        ++games;
+        pieces += game.getPieces();
+        steps += gameSteps;
+        totalScore += game.getScore();
+        totalLines += game.getLines();
+        minScore = Math.min(minScore, game.getScore());
+        maxScore = Math.max(maxScore, game.getScore());
+        minLines = Math.min(minLines, game.getLines());
+        maxLines = Math.max(maxLines, game.getLines());
+    }
+
+    public void merge(SimulationStats other) {
+        // Integer sums, minima and maxima do not depend on the merge order
+        games += other.games;
+        pieces += other.pieces;
+        steps += other.steps;
+        totalScore += other.totalScore;
+        totalLines += other.totalLines;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        minLines = Math.min(minLines, other.minLines);
+        maxLines = Math.max(maxLines, other.maxLines);
+    }
+}
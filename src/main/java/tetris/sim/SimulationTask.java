@@ -0,0 +1,73 @@
+package tetris.sim;
+
+import java.util.concurrent.RecursiveTask;
+
+import tetris.game.HeadlessDriver;
+import tetris.game.TetrisGame;
+import tetris.game.TetrisPlayer;
+import tetris.replay.ReplayRecorder;
+
+public class SimulationTask extends RecursiveTask<SimulationStats> {
+    private static final long serialVersionUID = 1L;
+
+    private final TetrisSimulator simulator;
+
+    private final long from, to;
+
+    public SimulationTask(TetrisSimulator simulator, long from, long to) {
+        this.simulator = simulator;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected SimulationStats compute() {
+        // Split the range of games until it is small enough to run directly
+        if (to - from > simulator.getBatchSize()) {
+            long middle = (from + to) >>> 1;
+
+            SimulationTask left = new SimulationTask(simulator, from, middle);
+            left.fork();
+
+            SimulationStats stats =
+                new SimulationTask(simulator, middle, to).compute();
+            stats.merge(left.join());
+
+            return stats;
+        }
+
+        SimulationStats stats = new SimulationStats();
+
+        // Reuse one headless game for the whole batch
+        HeadlessDriver driver = new HeadlessDriver();
+        TetrisGame game = driver.getGame();
+        game.setRandomizer(simulator.createRandomizer());
+        game.setBasketSize(simulator.getCols(), simulator.getRows());
+        game.setMonitor(simulator.getMetrics());
+
+        TetrisPlayer player = null;
+        ReplayRecorder recorder = null;
+
+        if (simulator.isRecording()) {
+            recorder = new ReplayRecorder();
+            game.addListener(recorder);
+        }
+
+        for (long index = from; index < to; ++index) {
+            long seed = simulator.getGameSeed(index);
+
+            game.setSeed(seed);
+            player = simulator.createPlayer(seed, player);
+            driver.setPlayer(player);
+            game.startGame();
+
+            stats.addGame(game, driver.run(simulator.getMaxSteps()));
+
+            if (recorder != null) {
+                simulator.writeReplay(recorder.toByteArray());
+            }
+        }
+
+        return stats;
+    }
+}
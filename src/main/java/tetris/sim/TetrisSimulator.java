@@ -0,0 +1,269 @@
+package tetris.sim;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.management.JMException;
+
+import tetris.ai.TetrisBot;
+import tetris.game.BagRandomizer;
+import tetris.game.TetrisGame;
+import tetris.game.TetrisPlayer;
+import tetris.game.TypeRandomizer;
+import tetris.metrics.TetrisMetrics;
+
+public class TetrisSimulator {
+    private static final String USAGE =
+        "Usage: java -cp tetris.jar tetris.sim.TetrisSimulator"
+            + " [games=N] [seed=N] [threads=N] [steps=N] [cols=N] [rows=N]"
+            + " [player=random|bot|none] [randomizer=bag|history|uniform]"
+            + " [record=FILE] [metrics=true|false]";
+
+    // Search depth of the bot, which has no time budget for reproducibility
+    private static final int BOT_DEPTH = 2;
+
+    private long games, seed, maxSteps;
+
+    private int threads, cols, rows;
+
+    private String player, randomizer, recordFile;
+
+    private OutputStream replays;
+
+    private TetrisMetrics metrics;
+
+    public TetrisSimulator() {
+        games = 10000;
+        seed = 0;
+        maxSteps = 1000000;
+        threads = Runtime.getRuntime().availableProcessors();
+        cols = 10;
+        rows = 20;
+        player = "random";
+        randomizer = BagRandomizer.NAME;
+    }
+
+    public boolean isRecording() {
+        return replays != null;
+    }
+
+    public TetrisMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getBatchSize() {
+        // Leave enough tasks for work stealing to balance uneven games
+        return Math.max(1, games / (threads * 64L));
+    }
+
+    public void setGames(long games) {
+        this.games = games;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setMaxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setCols(int cols) {
+        if (cols < TetrisGame.SMALL_GRID_SIZE
+            || cols > TetrisGame.MAX_BASKET_COLS) {
+            throw new IllegalArgumentException("Illegal width: " + cols);
+        }
+
+        this.cols = cols;
+    }
+
+    public void setRows(int rows) {
+        if (rows < TetrisGame.SMALL_GRID_SIZE
+            || rows > TetrisGame.MAX_BASKET_ROWS) {
+            throw new IllegalArgumentException("Illegal height: " + rows);
+        }
+
+        this.rows = rows;
+    }
+
+    public void setPlayer(String player) {
+        if (!player.equals("random") && !player.equals("bot")
+            && !player.equals("none")) {
+            throw new IllegalArgumentException("Unknown player: " + player);
+        }
+
+        this.player = player;
+    }
+
+    public void setRandomizer(String randomizer) {
+        // Fail early on unknown names
+        TypeRandomizer.forName(randomizer);
+
+        this.randomizer = randomizer;
+    }
+
+    public void setRecordFile(String recordFile) {
+        this.recordFile = recordFile;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        metrics = metricsEnabled ? new TetrisMetrics() : null;
+    }
+
+    public long getGameSeed(long index) {
+        // SplitMix64 of the index, so each game's seed depends only on it
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+
+    public TetrisPlayer createPlayer(long gameSeed, TetrisPlayer previous) {
+        if (player.equals("random")) {
+            return new RandomPlayer(~gameSeed);
+        } else if (player.equals("bot")) {
+            // Reuse the previous game's bot, which is large
+            TetrisBot bot =
+                previous instanceof TetrisBot ? (TetrisBot)previous
+                    : new TetrisBot(0, BOT_DEPTH);
+            bot.reset();
+
+            return bot;
+        }
+
+        return null;
+    }
+
+    public TypeRandomizer createRandomizer() {
+        return TypeRandomizer.forName(randomizer);
+    }
+
+    public synchronized void writeReplay(byte[] replay) {
+        // Replays are appended in whatever order the games finish
+        try {
+            replays.write(replay);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public SimulationStats run() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        if (recordFile != null) {
+            replays = new FileOutputStream(recordFile);
+        }
+
+        try {
+            return pool.invoke(new SimulationTask(this, 0, games));
+        } finally {
+            pool.shutdown();
+
+            if (replays != null) {
+                replays.close();
+                replays = null;
+            }
+        }
+    }
+
+    public static void main(String... args) {
+        TetrisSimulator simulator = new TetrisSimulator();
+
+        try {
+            for (String arg : args) {
+                int split = arg.indexOf('=');
+
+                if (split < 0) {
+                    throw new IllegalArgumentException("Illegal option: "
+                        + arg);
+                }
+
+                String name = arg.substring(0, split), value =
+                    arg.substring(split + 1);
+
+                if (name.equals("games")) {
+                    simulator.setGames(Long.parseLong(value));
+                } else if (name.equals("seed")) {
+                    simulator.setSeed(Long.parseLong(value));
+                } else if (name.equals("threads")) {
+                    simulator.setThreads(Integer.parseInt(value));
+                } else if (name.equals("steps")) {
+                    simulator.setMaxSteps(Long.parseLong(value));
+                } else if (name.equals("cols")) {
+                    simulator.setCols(Integer.parseInt(value));
+                } else if (name.equals("rows")) {
+                    simulator.setRows(Integer.parseInt(value));
+                } else if (name.equals("player")) {
+                    simulator.setPlayer(value);
+                } else if (name.equals("randomizer")) {
+                    simulator.setRandomizer(value);
+                } else if (name.equals("record")) {
+                    simulator.setRecordFile(value);
+                } else if (name.equals("metrics")) {
+                    simulator.setMetricsEnabled(Boolean.parseBoolean(value));
+                } else {
+                    throw new IllegalArgumentException("Unknown option: "
+                        + name);
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        if (simulator.getMetrics() != null) {
+            try {
+                // Let JConsole and the like watch long simulations
+                simulator.getMetrics().register("simulator");
+            } catch (JMException ex) {
+                System.err.println("Cannot register metrics: "
+                    + ex.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        SimulationStats stats = null;
+
+        try {
+            stats = simulator.run();
+        } catch (IOException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Games:  %d in %.3f s on %d threads%n",
+            stats.getGames(), seconds, simulator.threads);
+        System.out.printf("Rate:   %.1f games/s, %.1f pieces/s,"
+            + " %.1f steps/s%n", stats.getGames() / seconds,
+            stats.getPieces() / seconds, stats.getSteps() / seconds);
+        System.out.printf("Score:  mean %.2f, min %d, max %d%n",
+            stats.getMeanScore(), stats.getMinScore(), stats.getMaxScore());
+        System.out.printf("Lines:  mean %.2f, min %d, max %d%n",
+            stats.getMeanLines(), stats.getMinLines(), stats.getMaxLines());
+        System.out.printf("Pieces: %d, total score %d, total lines %d%n",
+            stats.getPieces(), stats.getTotalScore(), stats.getTotalLines());
+    }
+}